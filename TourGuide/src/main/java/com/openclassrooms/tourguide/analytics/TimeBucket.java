@@ -0,0 +1,89 @@
+package com.openclassrooms.tourguide.analytics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compteurs d'une tranche de temps (heure ou jour UTC) : visites par attraction et positions par région.
+ * Les enregistrements se font en parallèle (verrou partagé) ; {@link #seal()} fige la tranche avant
+ * sa fusion dans une tranche plus large ou sa suppression : un enregistrement refusé est réorienté.
+ */
+final class TimeBucket {
+
+    private final long start;
+    private final Map<Integer, LongAdder> visitsByAttraction = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> positionsByRegion = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean sealed;
+
+    TimeBucket(long start) {
+        this.start = start;
+    }
+
+    long start() {
+        return start;
+    }
+
+    // false si la tranche est figée
+    boolean record(int region, int[] attractions, int attractionCount) {
+        lock.readLock().lock();
+        try {
+            if (sealed) {
+                return false;
+            }
+            increment(positionsByRegion, region, 1);
+            for (int i = 0; i < attractionCount; i++) {
+                increment(visitsByAttraction, attractions[i], 1);
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Une fois figée, les compteurs ne bougent plus
+    void seal() {
+        lock.writeLock().lock();
+        try {
+            sealed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // false si la cible est figée (tranche hors rétention)
+    boolean mergeInto(TimeBucket target) {
+        target.lock.readLock().lock();
+        try {
+            if (target.sealed) {
+                return false;
+            }
+            visitsByAttraction.forEach((attraction, visits) -> increment(target.visitsByAttraction, attraction, visits.sum()));
+            positionsByRegion.forEach((region, positions) -> increment(target.positionsByRegion, region, positions.sum()));
+            return true;
+        } finally {
+            target.lock.readLock().unlock();
+        }
+    }
+
+    long visits(int attraction) {
+        LongAdder visits = visitsByAttraction.get(attraction);
+        return visits == null ? 0 : visits.sum();
+    }
+
+    long positions(int region) {
+        LongAdder positions = positionsByRegion.get(region);
+        return positions == null ? 0 : positions.sum();
+    }
+
+    Map<Integer, LongAdder> visitsByAttraction() {
+        return visitsByAttraction;
+    }
+
+    private static void increment(Map<Integer, LongAdder> counters, int key, long amount) {
+        counters.computeIfAbsent(key, k -> new LongAdder()).add(amount);
+    }
+}
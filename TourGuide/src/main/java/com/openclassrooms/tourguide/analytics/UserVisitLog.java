@@ -0,0 +1,60 @@
+package com.openclassrooms.tourguide.analytics;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Attractions visitées par un utilisateur, à l'heure près : une entrée {@code long} par couple
+ * (heure UTC, attraction), sans doublon dans la même heure.
+ */
+final class UserVisitLog {
+
+    private static final int ATTRACTION_BITS = 24;
+    private static final long ATTRACTION_MASK = (1L << ATTRACTION_BITS) - 1;
+
+    private long[] entries = new long[4];
+    private int size;
+
+    synchronized void add(long hour, int attraction) {
+        long entry = (hour << ATTRACTION_BITS) | attraction;
+        // Les visites arrivent dans l'ordre: seules les dernières entrées peuvent être de la même heure
+        for (int i = size - 1; i >= 0 && hourOf(entries[i]) == hour; i--) {
+            if (entries[i] == entry) {
+                return;
+            }
+        }
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        entries[size++] = entry;
+    }
+
+    // Entrées de [fromHour, toHour[ : (heure, attraction)
+    synchronized void forEachBetween(long fromHour, long toHour, BiConsumer<Long, Integer> action) {
+        for (int i = 0; i < size; i++) {
+            long hour = hourOf(entries[i]);
+            if (hour >= fromHour && hour < toHour) {
+                action.accept(hour, (int) (entries[i] & ATTRACTION_MASK));
+            }
+        }
+    }
+
+    // Supprime les entrées antérieures à l'heure donnée; renvoie le nombre d'entrées restantes
+    synchronized int trimBefore(long hour) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (hourOf(entries[i]) >= hour) {
+                entries[kept++] = entries[i];
+            }
+        }
+        size = kept;
+        if (size < entries.length / 4 && entries.length > 4) {
+            entries = Arrays.copyOf(entries, Math.max(4, size * 2));
+        }
+        return size;
+    }
+
+    private static long hourOf(long entry) {
+        return entry >> ATTRACTION_BITS;
+    }
+}
@@ -0,0 +1,320 @@
+package com.openclassrooms.tourguide.analytics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.dto.AttractionVisitsDto;
+import com.openclassrooms.tourguide.dto.UserVisitDto;
+import com.openclassrooms.tourguide.dto.VisitCountDto;
+import com.openclassrooms.tourguide.geo.GeoGrid;
+import com.openclassrooms.tourguide.service.GeofenceService;
+import com.openclassrooms.tourguide.user.HandleTable;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Historique agrégé des visites, alimenté par la chaîne de suivi (une position = une visite).
+ * <ul>
+ *   <li>chaque position incrémente, dans la tranche de son heure UTC, le compteur de sa région
+ *       (cellule de {@code tourguide.analytics.region-size-degrees}) et celui de chaque attraction
+ *       à moins de {@code tourguide.analytics.visit-radius-miles} ;</li>
+ *   <li>les attractions visitées par chaque utilisateur indexé sont gardées à l'heure près, par handle ;</li>
+ *   <li>en tâche de fond, les tranches horaires plus anciennes que {@code hourly-retention} sont fusionnées
+ *       en tranches journalières, elles-mêmes supprimées après {@code daily-retention}.</li>
+ * </ul>
+ * Les requêtes ne lisent que les tranches de la période demandée, jamais les utilisateurs ;
+ * les bornes sont arrondies à la tranche (heure ou jour UTC) qui les contient. Une requête ne voit
+ * jamais une heure à moitié compactée (à la fois dans son jour et dans {@code hourly}, ou dans aucun).
+ */
+@Slf4j
+@Component
+public class VisitAnalyticsStore {
+
+    public enum Granularity { HOUR, DAY }
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    // Attractions visitées par une position (rarement plus d'une ou deux)
+    private final class VisitedAttractions implements Consumer<Attraction> {
+        int[] keys = new int[2];
+        int count;
+
+        @Override
+        public void accept(Attraction attraction) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+            keys[count++] = attractionKey(attraction);
+        }
+    }
+
+    private final GeofenceService geofenceService;
+    private final boolean enabled;
+    private final double visitRadiusMiles;
+    private final GeoGrid regions;
+    private final long hourlyRetentionMillis;
+    private final long dailyRetentionMillis;
+    private final Duration compactionInterval;
+
+    private final NavigableMap<Long, TimeBucket> hourly = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Long, TimeBucket> daily = new ConcurrentSkipListMap<>();
+    // Par handle d'utilisateur; un journal vidé par la compaction reste en place (au plus un par utilisateur)
+    private final HandleTable<UserVisitLog> userVisits = new HandleTable<>();
+    // Requêtes en lecture partagée; fusion d'une heure dans son jour et retrait de hourly en exclusif
+    private final ReadWriteLock compaction = new ReentrantReadWriteLock();
+
+    // Clé entière par attraction (identifiant du catalogue); le nom sert aux réponses
+    private final Map<UUID, Integer> attractionKeys = new ConcurrentHashMap<>();
+    private final List<String> attractionNames = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "visit-analytics-compaction");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public VisitAnalyticsStore(GeofenceService geofenceService,
+                               @Value("${tourguide.analytics.enabled:true}") boolean enabled,
+                               @Value("${tourguide.analytics.visit-radius-miles:10}") double visitRadiusMiles,
+                               @Value("${tourguide.analytics.region-size-degrees:5}") double regionSizeDegrees,
+                               @Value("${tourguide.analytics.hourly-retention:48h}") Duration hourlyRetention,
+                               @Value("${tourguide.analytics.daily-retention:365d}") Duration dailyRetention,
+                               @Value("${tourguide.analytics.compaction-interval:10m}") Duration compactionInterval) {
+        this.geofenceService = geofenceService;
+        this.enabled = enabled;
+        this.visitRadiusMiles = visitRadiusMiles;
+        this.regions = new GeoGrid(regionSizeDegrees);
+        this.hourlyRetentionMillis = hourlyRetention.toMillis();
+        this.dailyRetentionMillis = dailyRetention.toMillis();
+        this.compactionInterval = compactionInterval;
+    }
+
+    @PostConstruct
+    void startCompaction() {
+        if (enabled) {
+            long period = compactionInterval.toMillis();
+            compactor.scheduleWithFixedDelay(this::compact, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        compactor.shutdownNow();
+    }
+
+    public void recordVisit(User user, VisitedLocation visitedLocation) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long time = visitedLocation.timeVisited.getTime();
+        if (time < now - dailyRetentionMillis) {
+            return;
+        }
+        Location location = visitedLocation.location;
+        int region = regions.cellOf(location.latitude, location.longitude);
+        VisitedAttractions visited = new VisitedAttractions();
+        geofenceService.rewardZones(visitRadiusMiles).forEachZoneContaining(location, visited);
+
+        // Tranche horaire tant qu'elle n'est pas compactée, sinon directement la tranche du jour
+        long hour = floor(time, HOUR_MILLIS);
+        TimeBucket bucket = hour >= floor(now - hourlyRetentionMillis, HOUR_MILLIS)
+                ? hourly.computeIfAbsent(hour, TimeBucket::new)
+                : null;
+        if (bucket == null || !bucket.record(region, visited.keys, visited.count)) {
+            daily.computeIfAbsent(floor(time, DAY_MILLIS), TimeBucket::new).record(region, visited.keys, visited.count);
+        }
+
+        // Historique par utilisateur réservé aux utilisateurs indexés (handle attribué)
+        if (visited.count > 0 && user.getHandle() >= 0) {
+            UserVisitLog visits = userVisits.computeIfAbsent(user.getHandle(), handle -> new UserVisitLog());
+            for (int i = 0; i < visited.count; i++) {
+                visits.add(hour / HOUR_MILLIS, visited.keys[i]);
+            }
+        }
+    }
+
+    // Visites d'une attraction par tranche (toutes les versions de l'attraction portant ce nom); vide si inconnue
+    public List<VisitCountDto> getAttractionVisits(String attractionName, Instant from, Instant to,
+                                                   Granularity granularity) {
+        int[] keys = keysOf(attractionName);
+        return series(from, to, granularity, bucket -> {
+            long visits = 0;
+            for (int key : keys) {
+                visits += bucket.visits(key);
+            }
+            return visits;
+        });
+    }
+
+    // Positions suivies par tranche dans la région contenant le point donné
+    public List<VisitCountDto> getRegionVisits(Location location, Instant from, Instant to, Granularity granularity) {
+        int region = regions.cellOf(location.latitude, location.longitude);
+        return series(from, to, granularity, bucket -> bucket.positions(region));
+    }
+
+    // Période arrondie au jour
+    public List<AttractionVisitsDto> getMostVisitedAttractions(Instant from, Instant to, int limit) {
+        Map<String, Long> visitsByName = new HashMap<>();
+        compaction.readLock().lock();
+        try {
+            for (TimeBucket bucket : bucketsBetween(from, to, Granularity.DAY)) {
+                bucket.visitsByAttraction().forEach((key, visits) ->
+                        visitsByName.merge(attractionNames.get(key), visits.sum(), Long::sum));
+            }
+        } finally {
+            compaction.readLock().unlock();
+        }
+        return visitsByName.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(Math.max(0, limit))
+                .map(entry -> new AttractionVisitsDto(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    public List<UserVisitDto> getUserVisits(User user, Instant from, Instant to) {
+        UserVisitLog visitLog = userVisits.get(user.getHandle());
+        if (visitLog == null) {
+            return List.of();
+        }
+        List<UserVisitDto> visits = new ArrayList<>();
+        long fromHour = Math.floorDiv(from.toEpochMilli(), HOUR_MILLIS);
+        long toHour = Math.floorDiv(to.toEpochMilli() + HOUR_MILLIS - 1, HOUR_MILLIS);
+        visitLog.forEachBetween(fromHour, toHour, (hour, key) ->
+                visits.add(new UserVisitDto(attractionNames.get(key), Instant.ofEpochMilli(hour * HOUR_MILLIS))));
+        visits.sort(Comparator.comparing(UserVisitDto::hour));
+        return visits;
+    }
+
+    public void compact() {
+        try {
+            compact(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("Compactage des visites en échec: {}", e.toString());
+        }
+    }
+
+    // Heures anciennes fusionnées dans leur jour, jours hors rétention supprimés, historiques utilisateurs élagués
+    public void compact(long nowMillis) {
+        long hourlyCutoff = floor(nowMillis - hourlyRetentionMillis, HOUR_MILLIS);
+        long dailyCutoff = floor(nowMillis - dailyRetentionMillis, DAY_MILLIS);
+
+        int merged = 0;
+        for (TimeBucket bucket : hourly.headMap(hourlyCutoff).values()) {
+            bucket.seal();
+            long day = floor(bucket.start(), DAY_MILLIS);
+            TimeBucket target = day >= dailyCutoff ? daily.computeIfAbsent(day, TimeBucket::new) : null;
+            // Une heure à la fois: les requêtes ne sont retenues que le temps d'une fusion
+            compaction.writeLock().lock();
+            try {
+                if (target != null) {
+                    bucket.mergeInto(target);
+                }
+                hourly.remove(bucket.start());
+            } finally {
+                compaction.writeLock().unlock();
+            }
+            merged++;
+        }
+        int dropped = 0;
+        for (TimeBucket bucket : daily.headMap(dailyCutoff).values()) {
+            bucket.seal();
+            daily.remove(bucket.start());
+            dropped++;
+        }
+        long oldestHour = dailyCutoff / HOUR_MILLIS;
+        userVisits.forEach(visitLog -> visitLog.trimBefore(oldestHour));
+        if (merged > 0 || dropped > 0) {
+            log.debug("Visites compactées: {} tranches horaires fusionnées, {} jours supprimés", merged, dropped);
+        }
+    }
+
+    private List<VisitCountDto> series(Instant from, Instant to, Granularity granularity,
+                                       ToLongFunction<TimeBucket> count) {
+        long step = granularity == Granularity.DAY ? DAY_MILLIS : HOUR_MILLIS;
+        TreeMap<Long, Long> totals = new TreeMap<>();
+        compaction.readLock().lock();
+        try {
+            for (TimeBucket bucket : bucketsBetween(from, to, granularity)) {
+                long visits = count.applyAsLong(bucket);
+                if (visits > 0) {
+                    totals.merge(floor(bucket.start(), step), visits, Long::sum);
+                }
+            }
+        } finally {
+            compaction.readLock().unlock();
+        }
+        return totals.entrySet().stream()
+                .map(entry -> new VisitCountDto(Instant.ofEpochMilli(entry.getKey()), entry.getValue()))
+                .toList();
+    }
+
+    // Série horaire: tranches horaires seulement (les heures compactées n'existent plus qu'au jour)
+    private List<TimeBucket> bucketsBetween(Instant from, Instant to, Granularity granularity) {
+        long toMillis = to.toEpochMilli();
+        if (toMillis <= from.toEpochMilli()) {
+            return List.of();
+        }
+        if (granularity == Granularity.HOUR) {
+            return new ArrayList<>(hourly.subMap(floor(from.toEpochMilli(), HOUR_MILLIS), true, toMillis, false).values());
+        }
+        long fromDay = floor(from.toEpochMilli(), DAY_MILLIS);
+        List<TimeBucket> buckets = new ArrayList<>(daily.subMap(fromDay, true, toMillis, false).values());
+        buckets.addAll(hourly.subMap(fromDay, true, toMillis, false).values());
+        return buckets;
+    }
+
+    private int attractionKey(Attraction attraction) {
+        Integer key = attractionKeys.get(attraction.attractionId);
+        return key != null ? key : registerAttraction(attraction);
+    }
+
+    private synchronized int registerAttraction(Attraction attraction) {
+        return attractionKeys.computeIfAbsent(attraction.attractionId, id -> {
+            attractionNames.add(attraction.attractionName);
+            return attractionNames.size() - 1;
+        });
+    }
+
+    private int[] keysOf(String attractionName) {
+        List<String> names = attractionNames;
+        return IntStream.range(0, names.size())
+                .filter(key -> names.get(key).equals(attractionName))
+                .toArray();
+    }
+
+    private static long floor(long millis, long step) {
+        return Math.floorDiv(millis, step) * step;
+    }
+}
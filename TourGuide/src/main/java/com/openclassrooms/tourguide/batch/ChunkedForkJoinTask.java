@@ -0,0 +1,40 @@
+package com.openclassrooms.tourguide.batch;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * Découpe récursivement une plage de tranches [from, to[ jusqu'à une tranche par tâche.
+ * Les sous-tâches sont volées par les threads inactifs du {@link java.util.concurrent.ForkJoinPool} :
+ * une tranche plus lente (utilisateurs avec beaucoup de visites, appels externes lents)
+ * n'immobilise pas les autres threads.
+ */
+public class ChunkedForkJoinTask extends RecursiveAction {
+
+    private final int from;
+    private final int to;
+    private final IntConsumer chunkProcessor;
+    private final BooleanSupplier cancelled;
+
+    public ChunkedForkJoinTask(int from, int to, IntConsumer chunkProcessor, BooleanSupplier cancelled) {
+        this.from = from;
+        this.to = to;
+        this.chunkProcessor = chunkProcessor;
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    protected void compute() {
+        if (to <= from || cancelled.getAsBoolean()) {
+            return;
+        }
+        if (to - from == 1) {
+            chunkProcessor.accept(from);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new ChunkedForkJoinTask(from, middle, chunkProcessor, cancelled),
+                new ChunkedForkJoinTask(middle, to, chunkProcessor, cancelled));
+    }
+}
@@ -0,0 +1,109 @@
+package com.openclassrooms.tourguide.batch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Points de reprise du recalcul des récompenses, sur disque.
+ * <ul>
+ *   <li>{@code snapshot.txt} : identifiant du run, taille de tranche puis les noms d'utilisateurs
+ *       figés au démarrage (écrit une seule fois) ;</li>
+ *   <li>{@code progress.bin} : tranches terminées ({@link BitSet}), réécrit régulièrement.</li>
+ * </ul>
+ * Chaque écriture passe par un fichier temporaire renommé atomiquement. La date du point de reprise
+ * est celle de sa dernière écriture (fichiers).
+ */
+@Slf4j
+@Component
+public class RewardsCheckpointStore {
+
+    private static final String SNAPSHOT_FILE = "snapshot.txt";
+    private static final String PROGRESS_FILE = "progress.bin";
+
+    private final Path directory;
+
+    public RewardsCheckpointStore(
+            @Value("${tourguide.batch.checkpoint-dir:${java.io.tmpdir}/tourguide-rewards-job}") Path directory) {
+        this.directory = directory;
+    }
+
+    public record Checkpoint(String runId, int chunkSize, List<String> userNames, BitSet completedChunks,
+                             Instant savedAt) {
+    }
+
+    public void saveSnapshot(String runId, int chunkSize, List<String> userNames) {
+        List<String> lines = new ArrayList<>(userNames.size() + 2);
+        lines.add(runId);
+        lines.add(Integer.toString(chunkSize));
+        lines.addAll(userNames);
+        try {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(directory.resolve(PROGRESS_FILE));
+            Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            Files.move(tmp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'écrire l'instantané du recalcul", e);
+        }
+    }
+
+    public void saveProgress(BitSet completedChunks) {
+        try {
+            Path tmp = directory.resolve(PROGRESS_FILE + ".tmp");
+            Files.write(tmp, completedChunks.toByteArray());
+            Files.move(tmp, directory.resolve(PROGRESS_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Une sauvegarde manquée n'arrête pas le run: au pire, quelques tranches seront refaites
+            log.warn("Point de reprise non enregistré: {}", e.getMessage());
+        }
+    }
+
+    public Optional<Checkpoint> load() {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return Optional.empty();
+        }
+        try {
+            List<String> lines = Files.readAllLines(snapshot, StandardCharsets.UTF_8);
+            if (lines.size() < 2) {
+                return Optional.empty();
+            }
+            Path progress = directory.resolve(PROGRESS_FILE);
+            BitSet completed = new BitSet();
+            Instant savedAt = Files.getLastModifiedTime(snapshot).toInstant();
+            if (Files.exists(progress)) {
+                completed = BitSet.valueOf(Files.readAllBytes(progress));
+                Instant progressAt = Files.getLastModifiedTime(progress).toInstant();
+                savedAt = progressAt.isAfter(savedAt) ? progressAt : savedAt;
+            }
+            return Optional.of(new Checkpoint(lines.get(0), Integer.parseInt(lines.get(1)),
+                    List.copyOf(lines.subList(2, lines.size())), completed, savedAt));
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Point de reprise illisible, ignoré: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void clear() {
+        try {
+            Files.deleteIfExists(directory.resolve(PROGRESS_FILE));
+            Files.deleteIfExists(directory.resolve(SNAPSHOT_FILE));
+        } catch (IOException e) {
+            log.warn("Suppression du point de reprise impossible: {}", e.getMessage());
+        }
+    }
+}
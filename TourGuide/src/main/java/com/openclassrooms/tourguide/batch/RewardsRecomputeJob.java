@@ -0,0 +1,399 @@
+package com.openclassrooms.tourguide.batch;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.batch.RewardsCheckpointStore.Checkpoint;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recalcul des récompenses de tous les utilisateurs, piloté comme un job.
+ * <ul>
+ *   <li>la liste des utilisateurs est figée au démarrage (instantané trié par nom) ;</li>
+ *   <li>elle est découpée en tranches traitées par un {@link ForkJoinPool} (vol de tâches) ;</li>
+ *   <li>les tranches terminées sont enregistrées périodiquement : un run interrompu (arrêt,
+ *       crash) reprend au lancement suivant là où il s'était arrêté, si son point de reprise date de moins
+ *       de {@code tourguide.batch.resume-max-age} ou si la reprise est demandée explicitement. Un run repris
+ *       garde son instantané : les utilisateurs créés depuis ne sont pas traités (nombre journalisé) ;</li>
+ *   <li>le run peut être mis en pause, repris ou annulé (annulation = point de reprise supprimé) ;</li>
+ *   <li>une tranche dont une récompense a été reportée (RewardCentral indisponible) ou dont un utilisateur
+ *       a échoué n'est pas marquée terminée : le run finit {@link State#INCOMPLETE}, son point de reprise
+ *       est conservé et le run suivant ne refait que ces tranches.</li>
+ * </ul>
+ * Progression et débit sont exposés par l'endpoint Actuator {@code rewardsjob} et par des jauges Micrometer.
+ */
+@Slf4j
+@Component
+public class RewardsRecomputeJob {
+
+    public enum State { IDLE, RUNNING, PAUSED, CANCELLED, COMPLETED, INCOMPLETE, FAILED }
+
+    public record JobStatus(String runId, State state, int totalUsers, int completedChunks, int totalChunks,
+                            double progress, long processedUsers, long failedUsers, long deferredRewards,
+                            double usersPerSecond, Instant startedAt, Instant finishedAt) {
+    }
+
+    private final TourGuideService tourGuideService;
+    private final RewardsService rewardsService;
+    private final RewardsCheckpointStore checkpointStore;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int defaultParallelism;
+    private final long checkpointIntervalNanos;
+    private final Duration resumeMaxAge;
+
+    // Lance et attend chaque run hors du thread appelant (requête Actuator)
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "rewards-job-launcher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Tout changement d'état d'un run (pause, reprise, annulation, état final) passe par ce moniteur
+    private final Object stateLock = new Object();
+    private volatile Run current;
+
+    // État d'un run: instantané, tranches terminées et compteurs
+    private static final class Run {
+        final String runId;
+        final List<String> userNames;
+        final int totalChunks;
+        final BitSet completedChunks;
+        final AtomicLong processedUsers = new AtomicLong();
+        final AtomicLong failedUsers = new AtomicLong();
+        final AtomicLong deferredRewards = new AtomicLong();
+        final Instant startedAt = Instant.now();
+        volatile State state = State.RUNNING;
+        volatile boolean cancelled;
+        volatile boolean paused;
+        volatile boolean keepCheckpoint;
+        volatile Instant finishedAt;
+        long lastCheckpointNanos = System.nanoTime();
+
+        Run(String runId, List<String> userNames, int chunkSize, BitSet completedChunks) {
+            this.runId = runId;
+            this.userNames = userNames;
+            this.totalChunks = (userNames.size() + chunkSize - 1) / chunkSize;
+            this.completedChunks = completedChunks;
+        }
+    }
+
+    public RewardsRecomputeJob(TourGuideService tourGuideService, RewardsService rewardsService,
+                               RewardsCheckpointStore checkpointStore, MeterRegistry meterRegistry,
+                               @Value("${tourguide.batch.chunk-size:256}") int chunkSize,
+                               @Value("${tourguide.batch.parallelism:0}") int parallelism,
+                               @Value("${tourguide.batch.checkpoint-interval:5s}") Duration checkpointInterval,
+                               @Value("${tourguide.batch.resume-max-age:1h}") Duration resumeMaxAge) {
+        this.tourGuideService = tourGuideService;
+        this.rewardsService = rewardsService;
+        this.checkpointStore = checkpointStore;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = Math.max(1, chunkSize);
+        // Appels externes bloquants: par défaut 4 threads par cœur
+        this.defaultParallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors() * 4;
+        this.checkpointIntervalNanos = checkpointInterval.toNanos();
+        this.resumeMaxAge = resumeMaxAge;
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("tourguide.rewards.job.progress", this, job -> job.status().progress())
+                .description("Part des tranches du recalcul des récompenses terminées (0..1)")
+                .register(meterRegistry);
+        Gauge.builder("tourguide.rewards.job.processed.users", this, job -> job.status().processedUsers())
+                .description("Utilisateurs traités par le run courant")
+                .register(meterRegistry);
+        Gauge.builder("tourguide.rewards.job.throughput", this, job -> job.status().usersPerSecond())
+                .description("Débit du run courant (utilisateurs/s)")
+                .baseUnit("users/s")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Démarre un run en arrière-plan, en reprenant le point de reprise s'il date de moins de
+     * {@code tourguide.batch.resume-max-age}.
+     *
+     * @throws IllegalStateException si un run est déjà en cours
+     */
+    public JobStatus start(Integer parallelism) {
+        return start(parallelism, false);
+    }
+
+    /**
+     * Démarre un run en arrière-plan.
+     *
+     * @param resumeCheckpoint reprendre le point de reprise quel que soit son âge
+     * @throws IllegalStateException si un run est déjà en cours
+     */
+    public synchronized JobStatus start(Integer parallelism, boolean resumeCheckpoint) {
+        Run run = prepareRun(resumeCheckpoint);
+        int threads = parallelism != null && parallelism > 0 ? parallelism : defaultParallelism;
+        CompletableFuture.runAsync(() -> execute(run, threads), launcher);
+        return status();
+    }
+
+    public JobStatus pause() {
+        Run run = current;
+        if (run == null) {
+            return status();
+        }
+        synchronized (stateLock) {
+            if (run.state != State.RUNNING) {
+                return status(); // terminé entre-temps: rien à mettre en pause
+            }
+            run.paused = true;
+            run.state = State.PAUSED;
+        }
+        saveCheckpoint(run);
+        log.info("Recalcul des récompenses {} en pause", run.runId);
+        return status();
+    }
+
+    public JobStatus resume() {
+        Run run = current;
+        if (run == null) {
+            return status();
+        }
+        synchronized (stateLock) {
+            if (run.state != State.PAUSED) {
+                return status();
+            }
+            run.paused = false;
+            run.state = State.RUNNING;
+            stateLock.notifyAll();
+        }
+        log.info("Recalcul des récompenses {} repris", run.runId);
+        return status();
+    }
+
+    // Annulation explicite: le point de reprise est supprimé, le prochain run repartira de zéro
+    public JobStatus cancel() {
+        stop(false);
+        return status();
+    }
+
+    public JobStatus status() {
+        Run run = current;
+        if (run == null) {
+            return new JobStatus(null, State.IDLE, 0, 0, 0, 0, 0, 0, 0, 0, null, null);
+        }
+        int completed = completedChunks(run);
+        long end = run.finishedAt != null ? run.finishedAt.toEpochMilli() : System.currentTimeMillis();
+        double seconds = Math.max(0.001, (end - run.startedAt.toEpochMilli()) / 1000.0);
+        return new JobStatus(run.runId, run.state, run.userNames.size(), completed, run.totalChunks,
+                run.totalChunks == 0 ? 1 : (double) completed / run.totalChunks,
+                run.processedUsers.get(), run.failedUsers.get(), run.deferredRewards.get(),
+                run.processedUsers.get() / seconds,
+                run.startedAt, run.finishedAt);
+    }
+
+    // Arrêt de l'application: le run s'interrompt mais son point de reprise est conservé
+    @PreDestroy
+    public void shutdown() {
+        stop(true);
+        launcher.shutdownNow();
+    }
+
+    private void stop(boolean keepCheckpoint) {
+        Run run = current;
+        if (run != null) {
+            synchronized (stateLock) {
+                if (run.state == State.RUNNING || run.state == State.PAUSED) {
+                    run.keepCheckpoint = keepCheckpoint;
+                    run.cancelled = true;
+                    stateLock.notifyAll();
+                    return; // execute() fixe l'état final et traite le point de reprise
+                }
+            }
+        }
+        if (!keepCheckpoint) {
+            checkpointStore.clear();
+        }
+    }
+
+    private Run prepareRun(boolean resumeCheckpoint) {
+        Run previous = current;
+        if (previous != null && (previous.state == State.RUNNING || previous.state == State.PAUSED)) {
+            throw new IllegalStateException("Un recalcul des récompenses est déjà en cours: " + previous.runId);
+        }
+        Run run = checkpointStore.load()
+                .filter(checkpoint -> checkpoint.chunkSize() == chunkSize)
+                .filter(checkpoint -> resumeCheckpoint || isRecent(checkpoint))
+                .map(this::resumeFrom)
+                .orElseGet(this::newRun);
+        current = run;
+        return run;
+    }
+
+    private boolean isRecent(Checkpoint checkpoint) {
+        Duration age = Duration.between(checkpoint.savedAt(), Instant.now());
+        if (age.compareTo(resumeMaxAge) <= 0) {
+            return true;
+        }
+        log.info("Point de reprise {} ignoré: enregistré il y a {} (max {}); reprise possible avec resumeCheckpoint=true",
+                checkpoint.runId(), age.withNanos(0), resumeMaxAge);
+        return false;
+    }
+
+    private Run resumeFrom(Checkpoint checkpoint) {
+        log.info("Reprise du recalcul des récompenses {}: {} tranches sur {} déjà terminées",
+                checkpoint.runId(), checkpoint.completedChunks().cardinality(),
+                (checkpoint.userNames().size() + chunkSize - 1) / chunkSize);
+        // L'instantané repris ignore les utilisateurs créés depuis: le signaler plutôt que les oublier en silence
+        Set<String> snapshotNames = new HashSet<>(checkpoint.userNames());
+        long notInSnapshot = tourGuideService.getUsers().stream()
+                .filter(user -> !snapshotNames.contains(user.getUserName()))
+                .count();
+        if (notInSnapshot > 0) {
+            log.warn("Recalcul des récompenses {}: {} utilisateurs créés depuis l'instantané ne seront pas traités "
+                    + "par ce run (relancer un run complet)", checkpoint.runId(), notInSnapshot);
+        }
+        return new Run(checkpoint.runId(), checkpoint.userNames(), chunkSize, checkpoint.completedChunks());
+    }
+
+    private Run newRun() {
+        // Instantané trié: l'ordre des tranches est reproductible d'un redémarrage à l'autre
+        List<String> userNames = tourGuideService.getUsers().stream()
+                .map(User::getUserName)
+                .sorted()
+                .toList();
+        Run run = new Run(UUID.randomUUID().toString(), userNames, chunkSize, new BitSet());
+        checkpointStore.saveSnapshot(run.runId, chunkSize, userNames);
+        log.info("Nouveau recalcul des récompenses {}: {} utilisateurs en {} tranches",
+                run.runId, userNames.size(), run.totalChunks);
+        return run;
+    }
+
+    private void execute(Run run, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ChunkedForkJoinTask(0, run.totalChunks,
+                    chunk -> processChunk(run, chunk), () -> run.cancelled));
+            synchronized (stateLock) {
+                run.state = run.cancelled ? State.CANCELLED
+                        : completedChunks(run) < run.totalChunks ? State.INCOMPLETE : State.COMPLETED;
+            }
+        } catch (RuntimeException e) {
+            synchronized (stateLock) {
+                run.state = State.FAILED;
+            }
+            log.error("Échec du recalcul des récompenses {}", run.runId, e);
+        } finally {
+            pool.shutdown();
+            run.finishedAt = Instant.now();
+            if (run.state == State.COMPLETED || (run.state == State.CANCELLED && !run.keepCheckpoint)) {
+                checkpointStore.clear();
+            } else {
+                saveCheckpoint(run);
+            }
+            JobStatus status = status();
+            log.info("Recalcul des récompenses {} terminé ({}): {} utilisateurs, {} échecs, {} récompenses reportées, "
+                            + "{} utilisateurs/s", run.runId, run.state, status.processedUsers(), status.failedUsers(),
+                    status.deferredRewards(), String.format("%.1f", status.usersPerSecond()));
+            if (run.state == State.INCOMPLETE) {
+                log.warn("Recalcul des récompenses {}: {} tranches sur {} à refaire (relancer le job)",
+                        run.runId, run.totalChunks - status.completedChunks(), run.totalChunks);
+            }
+        }
+    }
+
+    private void processChunk(Run run, int chunk) {
+        synchronized (run.completedChunks) {
+            if (run.completedChunks.get(chunk)) {
+                return; // déjà traitée avant l'interruption
+            }
+        }
+        int from = chunk * chunkSize;
+        int to = Math.min(run.userNames.size(), from + chunkSize);
+        boolean missingRewards = false;
+        for (int i = from; i < to; i++) {
+            if (!awaitIfPaused(run)) {
+                return; // annulé: la tranche reste à refaire
+            }
+            User user = tourGuideService.getUser(run.userNames.get(i));
+            if (user == null) {
+                continue; // supprimé depuis l'instantané
+            }
+            try {
+                int deferred = rewardsService.recalculateRewards(user);
+                run.processedUsers.incrementAndGet();
+                if (deferred > 0) {
+                    run.deferredRewards.addAndGet(deferred);
+                    missingRewards = true;
+                }
+            } catch (RuntimeException e) {
+                run.failedUsers.incrementAndGet();
+                missingRewards = true;
+                log.warn("Recalcul des récompenses impossible pour {}", user.getUserName(), e);
+            }
+        }
+        if (missingRewards) {
+            return; // tranche à refaire au prochain run
+        }
+        boolean checkpointDue;
+        synchronized (run.completedChunks) {
+            run.completedChunks.set(chunk);
+            long now = System.nanoTime();
+            checkpointDue = now - run.lastCheckpointNanos >= checkpointIntervalNanos;
+            if (checkpointDue) {
+                run.lastCheckpointNanos = now;
+            }
+        }
+        if (checkpointDue) {
+            saveCheckpoint(run);
+        }
+    }
+
+    private static int completedChunks(Run run) {
+        synchronized (run.completedChunks) {
+            return run.completedChunks.cardinality();
+        }
+    }
+
+    // Bloque le thread tant que le run est en pause; renvoie false si le run est annulé
+    private boolean awaitIfPaused(Run run) {
+        if (!run.paused) {
+            return !run.cancelled;
+        }
+        synchronized (stateLock) {
+            while (run.paused && !run.cancelled) {
+                try {
+                    stateLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return !run.cancelled;
+    }
+
+    private void saveCheckpoint(Run run) {
+        BitSet copy;
+        synchronized (run.completedChunks) {
+            copy = (BitSet) run.completedChunks.clone();
+        }
+        checkpointStore.saveProgress(copy);
+    }
+}
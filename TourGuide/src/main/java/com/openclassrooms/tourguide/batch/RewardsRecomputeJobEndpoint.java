@@ -0,0 +1,45 @@
+package com.openclassrooms.tourguide.batch;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.batch.RewardsRecomputeJob.JobStatus;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Pilotage du recalcul des récompenses via Actuator.
+ * <ul>
+ *   <li>{@code GET /actuator/rewardsjob} : progression, débit, état ;</li>
+ *   <li>{@code POST /actuator/rewardsjob/{start|pause|resume|cancel}} (paramètres optionnels de start :
+ *       {@code parallelism}, {@code resumeCheckpoint} pour reprendre un point de reprise trop ancien).</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "rewardsjob")
+@RequiredArgsConstructor
+public class RewardsRecomputeJobEndpoint {
+
+    private final RewardsRecomputeJob job;
+
+    @ReadOperation
+    public JobStatus status() {
+        return job.status();
+    }
+
+    @WriteOperation
+    public JobStatus action(@Selector String action, @Nullable Integer parallelism,
+                            @Nullable Boolean resumeCheckpoint) {
+        return switch (action) {
+            case "start" -> job.start(parallelism, Boolean.TRUE.equals(resumeCheckpoint));
+            case "pause" -> job.pause();
+            case "resume" -> job.resume();
+            case "cancel" -> job.cancel();
+            default -> throw new IllegalArgumentException("Action inconnue: " + action);
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package com.openclassrooms.tourguide.catalog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Catalogue des attractions partagé par tous les services.
+ * <ul>
+ *   <li>la version courante est un {@link AttractionSnapshot} immuable, chargé au premier usage ;</li>
+ *   <li>{@link #reload()} relit la source (GpsUtil, ou le fichier {@code tourguide.attractions.file})
+ *       et publie la nouvelle version d'un bloc : un lecteur voit l'ancienne ou la nouvelle, jamais
+ *       un mélange ;</li>
+ *   <li>une attraction inchangée (nom, ville, état, coordonnées) garde son objet et son
+ *       identifiant : les points en cache et les récompenses existantes restent valables ;</li>
+ *   <li>les abonnés ({@link AttractionCatalogListener}) reconstruisent leurs index après publication.</li>
+ * </ul>
+ * Format du fichier : une attraction par ligne, {@code nom;ville;état;latitude;longitude}
+ * (lignes vides et commentaires {@code #} ignorés).
+ */
+@Slf4j
+@Component
+public class AttractionCatalog {
+
+    private final GpsUtil gpsUtil;
+    private final String file;
+    private final List<AttractionCatalogListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile AttractionSnapshot snapshot;
+
+    public AttractionCatalog(GpsUtil gpsUtil, @Value("${tourguide.attractions.file:}") String file) {
+        this.gpsUtil = gpsUtil;
+        this.file = file == null || file.isBlank() ? null : file;
+    }
+
+    public AttractionSnapshot snapshot() {
+        AttractionSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load(null);
+                    snapshot = current;
+                    log.info("Catalogue des attractions chargé: {} attractions ({})", current.size(), current.source());
+                }
+            }
+        }
+        return current;
+    }
+
+    // Raccourci: vue non modifiable de la version courante
+    public List<Attraction> getAttractions() {
+        return snapshot().asList();
+    }
+
+    /**
+     * Relit la source et publie une nouvelle version.
+     * En cas d'échec (fichier illisible ou vide), la version courante reste en place.
+     */
+    public synchronized AttractionSnapshot reload() {
+        AttractionSnapshot previous = snapshot();
+        AttractionSnapshot current = load(previous);
+        snapshot = current;
+        log.info("Catalogue des attractions rechargé: version {}, {} attractions ({})",
+                current.version(), current.size(), current.source());
+        for (AttractionCatalogListener listener : listeners) {
+            try {
+                listener.catalogChanged(previous, current);
+            } catch (RuntimeException e) {
+                log.error("Abonné du catalogue en échec après rechargement", e);
+            }
+        }
+        return current;
+    }
+
+    public void addListener(AttractionCatalogListener listener) {
+        listeners.add(listener);
+    }
+
+    private AttractionSnapshot load(AttractionSnapshot previous) {
+        List<Attraction> loaded = file != null ? readFile(Path.of(file)) : gpsUtil.getAttractions();
+        if (loaded.isEmpty()) {
+            throw new IllegalStateException("Catalogue des attractions vide (" + sourceName() + ")");
+        }
+        List<Attraction> attractions = previous == null ? loaded : keepUnchanged(previous, loaded);
+        long version = previous == null ? 1 : previous.version() + 1;
+        return new AttractionSnapshot(version, sourceName(), Instant.now(), attractions);
+    }
+
+    // GpsUtil attribue de nouveaux identifiants à chaque lecture: on garde ceux des attractions inchangées
+    private static List<Attraction> keepUnchanged(AttractionSnapshot previous, List<Attraction> loaded) {
+        Map<String, Attraction> known = new HashMap<>(previous.size() * 2);
+        previous.asList().forEach(attraction -> known.putIfAbsent(key(attraction), attraction));
+        List<Attraction> merged = new ArrayList<>(loaded.size());
+        for (Attraction attraction : loaded) {
+            merged.add(Objects.requireNonNullElse(known.get(key(attraction)), attraction));
+        }
+        return merged;
+    }
+
+    private static String key(Attraction attraction) {
+        return attraction.attractionName + '|' + attraction.city + '|' + attraction.state
+                + '|' + attraction.latitude + '|' + attraction.longitude;
+    }
+
+    private static List<Attraction> readFile(Path path) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture impossible du catalogue " + path, e);
+        }
+        List<Attraction> attractions = new ArrayList<>(lines.size());
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(";");
+            if (fields.length != 5) {
+                throw new IllegalArgumentException(path + ":" + (n + 1) + ": 5 champs attendus (nom;ville;état;latitude;longitude)");
+            }
+            attractions.add(new Attraction(fields[0].strip(), fields[1].strip(), fields[2].strip(),
+                    Double.parseDouble(fields[3].strip()), Double.parseDouble(fields[4].strip())));
+        }
+        return attractions;
+    }
+
+    private String sourceName() {
+        return file != null ? "fichier " + file : "GpsUtil";
+    }
+}
@@ -0,0 +1,42 @@
+package com.openclassrooms.tourguide.catalog;
+
+import java.time.Instant;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Catalogue des attractions via Actuator.
+ * <ul>
+ *   <li>{@code GET /actuator/attractions} : version courante ;</li>
+ *   <li>{@code POST /actuator/attractions} : rechargement depuis la source.</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "attractions")
+@RequiredArgsConstructor
+public class AttractionCatalogEndpoint {
+
+    public record CatalogStatus(long version, int attractions, String source, Instant loadedAt) {
+    }
+
+    private final AttractionCatalog catalog;
+
+    @ReadOperation
+    public CatalogStatus status() {
+        return toStatus(catalog.snapshot());
+    }
+
+    @WriteOperation
+    public CatalogStatus reload() {
+        return toStatus(catalog.reload());
+    }
+
+    private static CatalogStatus toStatus(AttractionSnapshot snapshot) {
+        return new CatalogStatus(snapshot.version(), snapshot.size(), snapshot.source(), snapshot.loadedAt());
+    }
+}
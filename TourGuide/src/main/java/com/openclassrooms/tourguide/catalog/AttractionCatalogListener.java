@@ -0,0 +1,10 @@
+package com.openclassrooms.tourguide.catalog;
+
+/**
+ * Abonné aux nouvelles versions du catalogue des attractions (index à reconstruire).
+ * Appelé après publication : {@link AttractionCatalog#snapshot()} renvoie déjà {@code current}.
+ */
+public interface AttractionCatalogListener {
+
+    void catalogChanged(AttractionSnapshot previous, AttractionSnapshot current);
+}
@@ -0,0 +1,109 @@
+package com.openclassrooms.tourguide.catalog;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.openclassrooms.tourguide.geo.GeoGrid;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Version immuable du catalogue des attractions.
+ * Les attractions sont rangées dans un tableau ; la trigonométrie de {@link #nearest}
+ * (mêmes formules que {@link GeoGrid#distanceMiles}) est précalculée une fois par version.
+ * {@link #asList()} est une vue non modifiable du tableau : aucune copie par appel.
+ */
+public final class AttractionSnapshot {
+
+    private final long version;
+    private final String source;
+    private final Instant loadedAt;
+
+    private final Attraction[] attractions;
+    private final List<Attraction> view;
+    private final double[] sinLat;
+    private final double[] cosLat;
+    private final double[] lonRadians;
+
+    AttractionSnapshot(long version, String source, Instant loadedAt, List<Attraction> attractions) {
+        this.version = version;
+        this.source = source;
+        this.loadedAt = loadedAt;
+        this.attractions = attractions.toArray(new Attraction[0]);
+        this.view = Collections.unmodifiableList(Arrays.asList(this.attractions));
+        int n = this.attractions.length;
+        this.sinLat = new double[n];
+        this.cosLat = new double[n];
+        this.lonRadians = new double[n];
+        for (int i = 0; i < n; i++) {
+            Attraction attraction = this.attractions[i];
+            double lat = Math.toRadians(attraction.latitude);
+            sinLat[i] = Math.sin(lat);
+            cosLat[i] = Math.cos(lat);
+            lonRadians[i] = Math.toRadians(attraction.longitude);
+        }
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public int size() {
+        return attractions.length;
+    }
+
+    public List<Attraction> asList() {
+        return view;
+    }
+
+    /**
+     * Les {@code limit} attractions les plus proches, de la plus proche à la plus éloignée.
+     * Sélection partielle en un passage : pas de tri de tout le catalogue.
+     */
+    public List<Attraction> nearest(Location location, int limit) {
+        int k = Math.min(Math.max(0, limit), attractions.length);
+        if (k == 0) {
+            return List.of();
+        }
+        double lat = Math.toRadians(location.latitude);
+        double sinFrom = Math.sin(lat);
+        double cosFrom = Math.cos(lat);
+        double lonFrom = Math.toRadians(location.longitude);
+
+        // Meilleurs candidats triés par distance croissante (insertion: k est petit)
+        int[] best = new int[k];
+        double[] bestDistance = new double[k];
+        int count = 0;
+        for (int i = 0; i < attractions.length; i++) {
+            double distance = GeoGrid.distanceMilesRadians(sinLat[i], cosLat[i], lonRadians[i],
+                    sinFrom, cosFrom, lonFrom);
+            if (count == k && distance >= bestDistance[k - 1]) {
+                continue;
+            }
+            int position = count < k ? count++ : k - 1;
+            while (position > 0 && bestDistance[position - 1] > distance) {
+                best[position] = best[position - 1];
+                bestDistance[position] = bestDistance[position - 1];
+                position--;
+            }
+            best[position] = i;
+            bestDistance[position] = distance;
+        }
+        Attraction[] result = new Attraction[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = attractions[best[i]];
+        }
+        return List.of(result);
+    }
+}
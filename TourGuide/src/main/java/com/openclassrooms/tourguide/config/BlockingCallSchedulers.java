@@ -0,0 +1,48 @@
+package com.openclassrooms.tourguide.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Schedulers "bounded elastic" dédiés aux appels bloquants des dépendances externes.
+ * Chaque dépendance (GpsUtil, RewardCentral, TripPricer) dispose de son propre pool borné :
+ * une dépendance lente sature uniquement son pool, sans bloquer les threads de requête
+ * ni les appels vers les autres dépendances.
+ * <p>
+ * Seuls les appels externes eux-mêmes y s'exécutent, via {@code DependencyGuards} : la taille d'un pool
+ * est la capacité de la cloison de sa dépendance. Les traitements qui attendent ces appels (calcul des
+ * récompenses, points affichés, offres de voyage) ou qui ne font que calculer (attractions proches)
+ * restent sur {@code Schedulers.boundedElastic()} : sur un pool dédié, chaque attente occuperait un thread
+ * dont l'appel attendu a besoin, jusqu'à l'interblocage quand le pool est plein.
+ */
+@Component
+@Getter
+@Accessors(fluent = true)
+public class BlockingCallSchedulers {
+
+    private final Scheduler gps;
+    private final Scheduler rewards;
+    private final Scheduler tripPricer;
+
+    public BlockingCallSchedulers(
+            @Value("${tourguide.reactive.gps.threads:64}") int gpsThreads,
+            @Value("${tourguide.reactive.rewards.threads:64}") int rewardsThreads,
+            @Value("${tourguide.reactive.trip-pricer.threads:16}") int tripPricerThreads,
+            @Value("${tourguide.reactive.queued-tasks:100000}") int queuedTasks) {
+        this.gps = Schedulers.newBoundedElastic(gpsThreads, queuedTasks, "gps");
+        this.rewards = Schedulers.newBoundedElastic(rewardsThreads, queuedTasks, "rewards");
+        this.tripPricer = Schedulers.newBoundedElastic(tripPricerThreads, queuedTasks, "trip-pricer");
+    }
+
+    @PreDestroy
+    public void dispose() {
+        gps.dispose();
+        rewards.dispose();
+        tripPricer.dispose();
+    }
+}
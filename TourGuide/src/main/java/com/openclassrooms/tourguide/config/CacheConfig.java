@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import java.util.concurrent.TimeUnit;
 
@@ -23,4 +24,10 @@ public class CacheConfig {
         manager.setCacheNames(List.of("rewardPoints"));
         return manager;
     }
+
+    // Clé (handle utilisateur, attraction) du cache rewardPoints
+    @Bean
+    public KeyGenerator rewardPointsKeyGenerator() {
+        return new RewardPointsKeyGenerator();
+    }
 }
\ No newline at end of file
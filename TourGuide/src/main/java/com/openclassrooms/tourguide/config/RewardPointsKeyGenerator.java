@@ -0,0 +1,33 @@
+package com.openclassrooms.tourguide.config;
+
+import java.lang.reflect.Method;
+import java.util.UUID;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Attraction;
+
+/**
+ * Clé du cache {@code rewardPoints} pour {@code getRewardPoints(Attraction, User)} : le handle de
+ * l'utilisateur et l'identifiant de l'attraction, sans évaluation SpEL ni concaténation de chaînes.
+ * Un handle n'étant jamais réattribué, il désigne toujours le même utilisateur (donc le même
+ * {@code userId}) ; un utilisateur pas encore indexé retombe sur le couple d'identifiants.
+ */
+public class RewardPointsKeyGenerator implements KeyGenerator {
+
+    record RewardPointsKey(int userHandle, UUID attractionId) {
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        Attraction attraction = (Attraction) params[0];
+        User user = (User) params[1];
+        int handle = user.getHandle();
+        return handle >= 0
+                ? new RewardPointsKey(handle, attraction.attractionId)
+                : new SimpleKey(attraction.attractionId, user.getUserId());
+    }
+}
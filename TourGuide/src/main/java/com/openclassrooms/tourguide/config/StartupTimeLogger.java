@@ -0,0 +1,34 @@
+package com.openclassrooms.tourguide.config;
+
+import java.lang.management.ManagementFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mesure du démarrage : temps écoulé depuis le lancement de la JVM quand l'application est prête.
+ * Avec {@code tourguide.startup.exit-after-ready=true}, l'application s'arrête aussitôt :
+ * c'est l'exécution d'entraînement qui produit l'archive CDS (profil Maven {@code cds}).
+ */
+@Slf4j
+@Component
+public class StartupTimeLogger {
+
+    @Value("${tourguide.startup.exit-after-ready:false}")
+    private boolean exitAfterReady;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Application prête {} ms après le démarrage de la JVM",
+                ManagementFactory.getRuntimeMXBean().getUptime());
+        if (exitAfterReady) {
+            log.info("Arrêt après démarrage demandé (exécution d'entraînement)");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.openclassrooms.tourguide.config;
 
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
@@ -14,11 +16,46 @@ import org.springframework.stereotype.Component;
 public class TestDataInitializer {
 
     private final TourGuideService tourGuideService;
+    private final UserDataHealthIndicator userDataHealth;
+
+    // Démarrage rapide: chargement en tâche de fond, l'instance n'est prête qu'une fois terminé
+    @Value("${tourguide.startup.async-user-init:false}")
+    private boolean asyncUserInit;
+
+    // Nombre d'utilisateurs internes (0 = valeur de InternalTestHelper)
+    @Value("${tourguide.startup.internal-users:0}")
+    private int internalUsers;
 
     @PostConstruct
     public void init() {
+        if (internalUsers > 0) {
+            InternalTestHelper.setInternalUserNumber(internalUsers);
+        }
+        if (!asyncUserInit) {
+            loadUsers();
+            return;
+        }
+        userDataHealth.loadingStarted();
+        Thread loader = new Thread(this::loadUsers, "user-data-init");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadUsers() {
         log.info("Profil 'test' actif: initialisation des utilisateurs de test");
-        tourGuideService.initializeInternalUsers();
+        try {
+            tourGuideService.initializeInternalUsers();
+            if (asyncUserInit) {
+                userDataHealth.loadingCompleted(tourGuideService.getUserCount());
+            }
+        } catch (RuntimeException e) {
+            if (!asyncUserInit) {
+                throw e;
+            }
+            log.error("Échec du chargement des utilisateurs de test", e);
+            userDataHealth.loadingFailed(e);
+            return;
+        }
         log.info("Initialisation des utilisateurs de test terminée");
     }
-}
\ No newline at end of file
+}
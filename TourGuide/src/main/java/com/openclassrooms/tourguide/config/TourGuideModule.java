@@ -20,6 +20,11 @@ public class TourGuideModule {
 	public RewardCentral getRewardCentral() {
 		return new RewardCentral();
 	}
+
+	@Bean
+	public TripPricer getTripPricer() {
+		return new TripPricer();
+	}
 	
 
 }
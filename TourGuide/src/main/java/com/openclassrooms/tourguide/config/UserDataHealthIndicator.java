@@ -0,0 +1,57 @@
+package com.openclassrooms.tourguide.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * État du chargement initial des utilisateurs, inclus dans le groupe {@code readiness}.
+ * Sans chargement en cours (aucun initialiseur, ou chargement synchrone terminé), l'état est UP ;
+ * pendant un chargement asynchrone, l'instance reste hors trafic.
+ */
+@Slf4j
+@Component
+public class UserDataHealthIndicator implements HealthIndicator {
+
+    private enum State { NONE, LOADING, LOADED, FAILED }
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.NONE);
+    private volatile long loadedAfterJvmStartMillis = -1;
+    private volatile String failure;
+
+    public void loadingStarted() {
+        state.set(State.LOADING);
+    }
+
+    public void loadingCompleted(int users) {
+        loadedAfterJvmStartMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        state.set(State.LOADED);
+        log.info("{} utilisateurs chargés, {} ms après le démarrage de la JVM", users, loadedAfterJvmStartMillis);
+    }
+
+    public void loadingFailed(Exception e) {
+        failure = e.toString();
+        state.set(State.FAILED);
+    }
+
+    // Vrai tant qu'aucun chargement n'est en cours: les utilisateurs présents sont ceux du démarrage
+    public boolean isLoaded() {
+        State current = state.get();
+        return current == State.NONE || current == State.LOADED;
+    }
+
+    @Override
+    public Health health() {
+        return switch (state.get()) {
+            case NONE -> Health.up().build();
+            case LOADING -> Health.outOfService().withDetail("users", "chargement en cours").build();
+            case LOADED -> Health.up().withDetail("loadedAfterJvmStartMs", loadedAfterJvmStartMillis).build();
+            case FAILED -> Health.down().withDetail("error", failure).build();
+        };
+    }
+}
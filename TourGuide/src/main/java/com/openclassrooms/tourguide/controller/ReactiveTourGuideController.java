@@ -0,0 +1,78 @@
+package com.openclassrooms.tourguide.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import com.openclassrooms.tourguide.dto.NearbyAttractionDto;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tripPricer.Provider;
+
+/**
+ * Variante réactive de l'API TourGuide, exposée sous le préfixe {@code /reactive}.
+ * Les méthodes renvoient des {@link Mono} : Spring MVC libère le thread de requête
+ * pendant que les appels bloquants s'exécutent sur les schedulers dédiés.
+ */
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveTourGuideController {
+
+    @Autowired
+    TourGuideService tourGuideService;
+
+    @Autowired
+    RewardsService rewardsService;
+
+    @RequestMapping("/getLocation")
+    public Mono<VisitedLocation> getLocation(@RequestParam String userName) {
+        return tourGuideService.getUserLocationReactive(getUser(userName));
+    }
+
+    @RequestMapping("/getNearbyAttractions")
+    public Mono<List<NearbyAttractionDto>> getNearbyAttractions(@RequestParam String userName) {
+        User user = getUser(userName);
+        return tourGuideService.getUserLocationReactive(user)
+                .flatMap(visitedLocation -> {
+                    Location userLoc = visitedLocation.location;
+                    return rewardsService.getClosestAttractionsReactive(userLoc, 5)
+                            .flatMapMany(Flux::fromIterable)
+                            // Points récupérés en parallèle, ordre des attractions conservé
+                            .flatMapSequential(attraction -> rewardsService.getRewardPointsReactive(attraction, user)
+                                    .map(points -> new NearbyAttractionDto(
+                                            attraction.attractionName,
+                                            attraction.latitude,
+                                            attraction.longitude,
+                                            userLoc.latitude,
+                                            userLoc.longitude,
+                                            rewardsService.getDistance(attraction, userLoc),
+                                            points)))
+                            .collectList();
+                });
+    }
+
+    @RequestMapping("/getRewards")
+    public Mono<List<UserReward>> getRewards(@RequestParam String userName) {
+        return Mono.just(tourGuideService.getUserRewards(getUser(userName)));
+    }
+
+    @RequestMapping("/getTripDeals")
+    public Mono<List<Provider>> getTripDeals(@RequestParam String userName) {
+        return tourGuideService.getTripDealsReactive(getUser(userName));
+    }
+
+    private User getUser(String userName) {
+        return tourGuideService.getUser(userName);
+    }
+}
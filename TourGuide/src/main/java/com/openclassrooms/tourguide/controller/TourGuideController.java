@@ -1,76 +1,218 @@
 package com.openclassrooms.tourguide.controller;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
-import java.util.Map;
-import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
 import gpsUtil.location.Location;
 
+import com.openclassrooms.tourguide.analytics.VisitAnalyticsStore;
+import com.openclassrooms.tourguide.analytics.VisitAnalyticsStore.Granularity;
+import com.openclassrooms.tourguide.dto.AttractionCrowdDto;
+import com.openclassrooms.tourguide.dto.AttractionVisitsDto;
+import com.openclassrooms.tourguide.dto.NearbyAttractionDto;
+import com.openclassrooms.tourguide.dto.UserSummaryDto;
+import com.openclassrooms.tourguide.dto.UserVisitDto;
+import com.openclassrooms.tourguide.dto.VisitCountDto;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
 
 import tripPricer.Provider;
 
+import com.openclassrooms.tourguide.notification.UserEventHub;
+import com.openclassrooms.tourguide.service.CrowdDensityService;
 import com.openclassrooms.tourguide.service.RewardsService;
 
 @RestController
 public class TourGuideController {
 
+    public static final String REWARDS_VERSION_HEADER = "X-Rewards-Version";
+
+    private static final Duration DEFAULT_PERIOD = Duration.ofDays(1);
+
 	@Autowired
 	TourGuideService tourGuideService;
 	
     @Autowired
     RewardsService rewardsService;
+
+    @Autowired
+    CrowdDensityService crowdDensityService;
+
+    @Autowired
+    UserEventHub userEventHub;
+
+    @Autowired
+    VisitAnalyticsStore visitAnalyticsStore;
 	
     @RequestMapping("/")
     public String index() {
         return "Greetings from TourGuide!";
     }
     
+    // ETag = version de l'historique: If-None-Match identique -> 304 sans corps
     @RequestMapping("/getLocation") 
-    public VisitedLocation getLocation(@RequestParam String userName) {
-    	return tourGuideService.getUserLocation(getUser(userName));
+    public ResponseEntity<VisitedLocation> getLocation(@RequestParam String userName) {
+        User user = getUser(userName);
+        // Version lue avant la position: au pire le corps est plus récent que son ETag, jamais l'inverse
+        long version = user.getLocationVersion();
+        boolean tracked = user.getVisitedLocations().isEmpty();
+        VisitedLocation visitedLocation = tourGuideService.getUserLocation(user);
+        if (tracked) {
+            // Historique vide: la position vient d'être suivie, version et position sont relues dans le même ordre
+            version = user.getLocationVersion();
+            visitedLocation = user.getLastVisitedLocation();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag(user, "location", version))
+                .body(visitedLocation);
     }
     
-       @RequestMapping("/getNearbyAttractions")
-    public List<Map<String, Object>> getNearbyAttractions(@RequestParam String userName) {
+    @RequestMapping("/getNearbyAttractions")
+    public List<NearbyAttractionDto> getNearbyAttractions(@RequestParam String userName) {
         User user = getUser(userName);
         VisitedLocation visitedLocation = tourGuideService.getUserLocation(user);
         Location userLoc = visitedLocation.location;
 
         return rewardsService.getClosestAttractions(userLoc, 5).stream()
-                .map(attraction -> {
-                    Map<String, Object> attractionMap = new LinkedHashMap<>();
-                    attractionMap.put("attractionName", attraction.attractionName);
-                    attractionMap.put("attractionLatitude", attraction.latitude);
-                    attractionMap.put("attractionLongitude", attraction.longitude);
-                    attractionMap.put("userLatitude", userLoc.latitude);
-                    attractionMap.put("userLongitude", userLoc.longitude);
-                    attractionMap.put("distanceMiles", rewardsService.getDistance(attraction, userLoc));
-                    attractionMap.put("rewardPoints", rewardsService.getRewardPoints(attraction, user));
-                    return attractionMap;
-                })
+                .map(attraction -> new NearbyAttractionDto(
+                        attraction.attractionName,
+                        attraction.latitude,
+                        attraction.longitude,
+                        userLoc.latitude,
+                        userLoc.longitude,
+                        rewardsService.getDistance(attraction, userLoc),
+                        rewardsService.getDisplayedRewardPoints(attraction, user)))
                 .toList();
     }
     
+    // ETag = version des récompenses; avec 'since', seules les récompenses ajoutées depuis cette version
     @RequestMapping("/getRewards") 
-    public List<UserReward> getRewards(@RequestParam String userName) {
-    	return tourGuideService.getUserRewards(getUser(userName));
+    public ResponseEntity<List<UserReward>> getRewards(@RequestParam String userName,
+                                                       @RequestParam(required = false) Long since) {
+        User user = getUser(userName);
+        long version = user.getRewardsVersion();
+        // Corps borné à la version annoncée, même sans 'since': une récompense plus récente viendra au prochain appel
+        List<UserReward> rewards = tourGuideService.getUserRewardsSince(user, since == null ? 0 : since, version);
+        return ResponseEntity.ok()
+                .eTag(etag(user, "rewards", version))
+                .header(REWARDS_VERSION_HEADER, Long.toString(version))
+                .body(rewards);
     }
        
+    // Flux SSE des récompenses attribuées et des nouvelles positions: évite d'interroger /getRewards en boucle
+    @RequestMapping(value = "/streamEvents", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestParam String userName) {
+        User user = getUser(userName);
+        return user == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(userEventHub.subscribe(user));
+    }
+
     @RequestMapping("/getTripDeals")
     public List<Provider> getTripDeals(@RequestParam String userName) {
     	return tourGuideService.getTripDeals(getUser(userName));
     }
     
+    // --- Recherches d'utilisateurs (outils de support, campagnes régionales) ---
+
+    @RequestMapping("/getUserById")
+    public ResponseEntity<UserSummaryDto> getUserById(@RequestParam UUID userId) {
+        return ResponseEntity.of(tourGuideService.findUserById(userId).map(this::toSummary));
+    }
+
+    @RequestMapping("/getUserByEmail")
+    public ResponseEntity<UserSummaryDto> getUserByEmail(@RequestParam String emailAddress) {
+        return ResponseEntity.of(tourGuideService.findUserByEmail(emailAddress).map(this::toSummary));
+    }
+
+    @RequestMapping("/getUsersNear")
+    public List<UserSummaryDto> getUsersNear(@RequestParam double latitude, @RequestParam double longitude,
+                                             @RequestParam double radiusMiles) {
+        return tourGuideService.getUsersWithin(new Location(latitude, longitude), radiusMiles).stream()
+                .map(this::toSummary)
+                .toList();
+    }
+
+    // --- Fréquentation des attractions (tableau de bord d'exploitation) ---
+
+    @RequestMapping("/getCrowdedAttractions")
+    public List<AttractionCrowdDto> getCrowdedAttractions(@RequestParam(defaultValue = "10") int limit) {
+        return crowdDensityService.getMostCrowdedAttractions(limit);
+    }
+
+    @RequestMapping("/getAttractionCrowd")
+    public ResponseEntity<AttractionCrowdDto> getAttractionCrowd(@RequestParam String attractionName,
+                                                                 @RequestParam(required = false) Double radiusMiles) {
+        double radius = radiusMiles != null ? radiusMiles : crowdDensityService.getCrowdRadiusMiles();
+        return ResponseEntity.of(crowdDensityService.getCrowdNear(attractionName, radius));
+    }
+
+    // --- Historique des visites (tranches horaires / journalières UTC; période par défaut: dernières 24 h) ---
+
+    @RequestMapping("/getAttractionVisits")
+    public List<VisitCountDto> getAttractionVisits(@RequestParam String attractionName,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                   @RequestParam(defaultValue = "HOUR") Granularity granularity) {
+        Instant end = to != null ? to : Instant.now();
+        return visitAnalyticsStore.getAttractionVisits(attractionName, from != null ? from : end.minus(DEFAULT_PERIOD),
+                end, granularity);
+    }
+
+    @RequestMapping("/getRegionVisits")
+    public List<VisitCountDto> getRegionVisits(@RequestParam double latitude, @RequestParam double longitude,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                               @RequestParam(defaultValue = "HOUR") Granularity granularity) {
+        Instant end = to != null ? to : Instant.now();
+        return visitAnalyticsStore.getRegionVisits(new Location(latitude, longitude),
+                from != null ? from : end.minus(DEFAULT_PERIOD), end, granularity);
+    }
+
+    @RequestMapping("/getMostVisitedAttractions")
+    public List<AttractionVisitsDto> getMostVisitedAttractions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "10") int limit) {
+        Instant end = to != null ? to : Instant.now();
+        return visitAnalyticsStore.getMostVisitedAttractions(from != null ? from : end.minus(DEFAULT_PERIOD), end, limit);
+    }
+
+    @RequestMapping("/getUserVisits")
+    public ResponseEntity<List<UserVisitDto>> getUserVisits(@RequestParam String userName,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        User user = getUser(userName);
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Instant end = to != null ? to : Instant.now();
+        return ResponseEntity.ok(visitAnalyticsStore.getUserVisits(user, from != null ? from : end.minus(DEFAULT_PERIOD), end));
+    }
+
+    private UserSummaryDto toSummary(User user) {
+        Optional<Location> lastLocation = tourGuideService.getLastKnownLocation(user);
+        return UserSummaryDto.of(user, lastLocation.orElse(null));
+    }
+
+    // Identifiant inclus: un utilisateur recréé sous le même nom ne réutilise pas les anciens ETag
+    private static String etag(User user, String resource, long version) {
+        return "\"" + resource + "-" + user.getUserId() + "-" + version + "\"";
+    }
+
     private User getUser(String userName) {
     	return tourGuideService.getUser(userName);
     }
@@ -0,0 +1,209 @@
+package com.openclassrooms.tourguide.deals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.AttractionSnapshot;
+import com.openclassrooms.tourguide.geo.GeoGrid;
+import com.openclassrooms.tourguide.resilience.DependencyGuards;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserPreferences;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+/**
+ * Recommandation d'offres de voyage.
+ * <ul>
+ *   <li>les offres candidates sont demandées à TripPricer par « profil » (adultes, enfants, durée)
+ *       et par attraction, sans points de récompense : une même liste sert à tous les utilisateurs
+ *       du même profil pendant {@code tourguide.deals.candidates-ttl} ;</li>
+ *   <li>les points cumulés de l'utilisateur sont ensuite déduits du prix, comme le fait TripPricer ;</li>
+ *   <li>attractions candidates : les {@code tourguide.deals.attractions} plus proches de la dernière
+ *       position, dans le rayon {@code attractionProximity} des préférences ;</li>
+ *   <li>classement : attractions pas encore récompensées d'abord, puis prix, puis distance ;</li>
+ *   <li>la réponse part au plus tard après {@code tourguide.deals.latency-budget} avec les listes déjà
+ *       disponibles ; les demandes en cours continuent et servent à l'appel suivant ;</li>
+ *   <li>les appels TripPricer passent par la protection "trip-pricer" ({@link DependencyGuards}) : une liste
+ *       en échec n'est pas gardée en cache et, si rien n'est prêt, les offres précédentes sont renvoyées.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class TripDealRecommender {
+
+    private static final String TRIP_PRICER_API_KEY = "test-server-api-key";
+
+    // Seuls ces champs des préférences entrent dans le prix TripPricer
+    record PreferenceBucket(int adults, int children, int nights) {
+
+        static PreferenceBucket of(UserPreferences preferences) {
+            return new PreferenceBucket(preferences.getNumberOfAdults(), preferences.getNumberOfChildren(),
+                    preferences.getTripDuration());
+        }
+    }
+
+    private record CandidateKey(PreferenceBucket bucket, UUID attractionId) {
+    }
+
+    private record ScoredDeal(Provider provider, boolean alreadyRewarded, double distanceMiles) {
+    }
+
+    private final TripPricer tripPricer;
+    private final AttractionCatalog attractionCatalog;
+    private final DependencyGuards guards;
+    private final int attractionsPerUser;
+    private final int limit;
+    private final Duration latencyBudget;
+    private final AsyncCache<CandidateKey, List<Provider>> candidates;
+    private final Counter pricingCalls;
+    private final Counter budgetExceeded;
+
+    public TripDealRecommender(TripPricer tripPricer, AttractionCatalog attractionCatalog,
+                               DependencyGuards guards, MeterRegistry meterRegistry,
+                               @Value("${tourguide.deals.attractions:3}") int attractionsPerUser,
+                               @Value("${tourguide.deals.limit:10}") int limit,
+                               @Value("${tourguide.deals.latency-budget:300ms}") Duration latencyBudget,
+                               @Value("${tourguide.deals.candidates-ttl:10m}") Duration candidatesTtl,
+                               @Value("${tourguide.deals.max-candidate-lists:10000}") long maxCandidateLists) {
+        this.tripPricer = tripPricer;
+        this.attractionCatalog = attractionCatalog;
+        this.guards = guards;
+        this.attractionsPerUser = Math.max(1, attractionsPerUser);
+        this.limit = limit;
+        this.latencyBudget = latencyBudget;
+        this.candidates = Caffeine.newBuilder()
+                .expireAfterWrite(candidatesTtl)
+                .maximumSize(maxCandidateLists)
+                .buildAsync();
+        this.pricingCalls = Counter.builder("tourguide.deals.pricing.calls")
+                .description("Appels TripPricer (listes candidates partagées par profil)")
+                .register(meterRegistry);
+        this.budgetExceeded = Counter.builder("tourguide.deals.budget.exceeded")
+                .description("Recommandations servies incomplètes: budget de latence dépassé")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Meilleures offres pour l'utilisateur, dans le budget de latence.
+     * Si aucune liste candidate n'est prête à temps, les offres précédentes de l'utilisateur sont renvoyées.
+     */
+    public List<Provider> recommend(User user) {
+        long deadline = System.nanoTime() + latencyBudget.toNanos();
+        PreferenceBucket bucket = PreferenceBucket.of(user.getUserPreferences());
+        Location from = user.getVisitedLocations().isEmpty() ? null : user.getLastVisitedLocation().location;
+        Set<UUID> rewarded = new HashSet<>();
+        int rewardPoints = 0;
+        for (UserReward reward : user.getUserRewards()) {
+            rewarded.add(reward.attraction.attractionId);
+            rewardPoints += reward.getRewardPoints();
+        }
+
+        // Demandes lancées (ou partagées) toutes ensemble, puis attendues jusqu'à l'échéance commune
+        Map<Attraction, CompletableFuture<List<Provider>>> pending = new LinkedHashMap<>();
+        for (Attraction attraction : candidateAttractions(user, from, rewarded)) {
+            pending.put(attraction, candidates.get(new CandidateKey(bucket, attraction.attractionId),
+                    (key, executor) -> price(key)));
+        }
+
+        List<ScoredDeal> deals = new ArrayList<>();
+        boolean complete = true;
+        for (Map.Entry<Attraction, CompletableFuture<List<Provider>>> entry : pending.entrySet()) {
+            List<Provider> providers = await(entry.getValue(), deadline);
+            if (providers == null) {
+                complete = false;
+                continue;
+            }
+            Attraction attraction = entry.getKey();
+            boolean alreadyRewarded = rewarded.contains(attraction.attractionId);
+            double distance = from == null ? 0 : distanceMiles(attraction, from);
+            for (Provider provider : providers) {
+                double price = Math.max(0, provider.price - rewardPoints);
+                deals.add(new ScoredDeal(new Provider(provider.tripId, provider.name, price), alreadyRewarded, distance));
+            }
+        }
+        if (!complete) {
+            budgetExceeded.increment();
+        }
+        if (deals.isEmpty() && !pending.isEmpty()) {
+            log.debug("Aucune offre prête en {} ms pour {}: offres précédentes", latencyBudget.toMillis(),
+                    user.getUserName());
+            guards.tripPricer().recordFallback();
+            return user.getTripDeals();
+        }
+        return deals.stream()
+                .sorted(Comparator.comparing(ScoredDeal::alreadyRewarded)
+                        .thenComparingDouble(deal -> deal.provider().price)
+                        .thenComparingDouble(ScoredDeal::distanceMiles))
+                .limit(limit)
+                .map(ScoredDeal::provider)
+                .toList();
+    }
+
+    // Attractions dans le rayon des préférences, les plus proches d'abord; sans position: début du catalogue
+    private List<Attraction> candidateAttractions(User user, Location from, Set<UUID> rewarded) {
+        AttractionSnapshot snapshot = attractionCatalog.snapshot();
+        if (from == null) {
+            return snapshot.asList().stream()
+                    .filter(attraction -> !rewarded.contains(attraction.attractionId))
+                    .limit(attractionsPerUser)
+                    .toList();
+        }
+        int proximity = user.getUserPreferences().getAttractionProximity();
+        List<Attraction> nearest = snapshot.nearest(from, attractionsPerUser).stream()
+                .filter(attraction -> distanceMiles(attraction, from) <= proximity)
+                .toList();
+        // Aucune attraction dans le rayon demandé: la plus proche reste proposée
+        return nearest.isEmpty() ? snapshot.nearest(from, 1) : nearest;
+    }
+
+    private CompletableFuture<List<Provider>> price(CandidateKey key) {
+        return guards.tripPricer().submit(() -> {
+            pricingCalls.increment();
+            PreferenceBucket bucket = key.bucket();
+            return List.copyOf(tripPricer.getPrice(TRIP_PRICER_API_KEY, key.attractionId(),
+                    bucket.adults(), bucket.children(), bucket.nights(), 0));
+        });
+    }
+
+    private static double distanceMiles(Attraction attraction, Location location) {
+        return GeoGrid.distanceMiles(attraction.latitude, attraction.longitude, location.latitude, location.longitude);
+    }
+
+    private static List<Provider> await(CompletableFuture<List<Provider>> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null; // toujours en cours: servira à l'appel suivant
+        } catch (ExecutionException e) {
+            log.debug("TripPricer indisponible: {}", e.getCause().getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
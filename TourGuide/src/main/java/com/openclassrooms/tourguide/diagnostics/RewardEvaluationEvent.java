@@ -0,0 +1,22 @@
+package com.openclassrooms.tourguide.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.openclassrooms.tourguide.RewardEvaluation")
+@Label("Reward Evaluation")
+@Category({"TourGuide", "Rewards"})
+@Description("Points de récompense d'une paire (attraction, utilisateur), cache compris")
+final class RewardEvaluationEvent extends jdk.jfr.Event {
+
+    @Label("User")
+    String userName;
+
+    @Label("Attraction")
+    String attractionName;
+
+    @Label("Points")
+    int points;
+}
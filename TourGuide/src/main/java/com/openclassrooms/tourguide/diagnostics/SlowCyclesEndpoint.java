@@ -0,0 +1,42 @@
+package com.openclassrooms.tourguide.diagnostics;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.diagnostics.TrackingDiagnostics.SlowCycleReport;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cycles lents du Tracker via Actuator.
+ * <ul>
+ *   <li>{@code GET /actuator/slowcycles} : derniers cycles lents et leurs suivis les plus lents ;</li>
+ *   <li>{@code POST /actuator/slowcycles} : copie de l'enregistrement JFR continu sur disque.</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "slowcycles")
+@RequiredArgsConstructor
+public class SlowCyclesEndpoint {
+
+    public record SlowCyclesStatus(boolean enabled, long thresholdMillis, List<SlowCycleReport> cycles) {
+    }
+
+    private final TrackingDiagnostics diagnostics;
+
+    @ReadOperation
+    public SlowCyclesStatus slowCycles() {
+        return new SlowCyclesStatus(diagnostics.isEnabled(), diagnostics.getSlowCycleThreshold().toMillis(),
+                diagnostics.getSlowCycles());
+    }
+
+    @WriteOperation
+    public Map<String, String> dump() {
+        return Map.of("file", diagnostics.dumpRecording().toString());
+    }
+}
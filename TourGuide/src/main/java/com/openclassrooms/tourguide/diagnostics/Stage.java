@@ -0,0 +1,9 @@
+package com.openclassrooms.tourguide.diagnostics;
+
+// Étapes du suivi d'un utilisateur (TourGuideService.trackUserLocation), dans l'ordre
+public enum Stage {
+    GPS,
+    POSITION_INDEX,
+    EVENTS,
+    REWARDS
+}
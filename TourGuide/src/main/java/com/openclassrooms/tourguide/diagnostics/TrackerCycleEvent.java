@@ -0,0 +1,27 @@
+package com.openclassrooms.tourguide.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.openclassrooms.tourguide.TrackerCycle")
+@Label("Tracker Cycle")
+@Category({"TourGuide", "Tracker"})
+@Description("Lot d'utilisateurs suivis ensemble par le Tracker")
+final class TrackerCycleEvent extends jdk.jfr.Event {
+
+    @Label("Cycle")
+    long cycleId;
+
+    @Label("Users")
+    int users;
+
+    @Label("Slowest User")
+    String slowestUser;
+
+    @Label("Slowest Evaluation")
+    @Timespan(Timespan.NANOSECONDS)
+    long slowestEvaluation;
+}
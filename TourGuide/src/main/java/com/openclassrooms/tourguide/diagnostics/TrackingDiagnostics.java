@@ -0,0 +1,341 @@
+package com.openclassrooms.tourguide.diagnostics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Attraction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Diagnostic des cycles lents du Tracker (désactivé par défaut : {@code tourguide.diagnostics.enabled}).
+ * <ul>
+ *   <li>chaque lot d'utilisateurs confié au pool du Tracker forme un cycle ; chaque suivi d'utilisateur
+ *       est découpé en étapes ({@link Stage}) et chaque calcul de points est mesuré ;</li>
+ *   <li>les événements JFR {@code com.openclassrooms.tourguide.*} sont émis pour les cycles, les suivis
+ *       et les calculs de points ; un enregistrement JFR continu (profil « default », durée bornée) est
+ *       démarré dans le processus et peut être vidé sur disque à la demande ;</li>
+ *   <li>un cycle plus long que {@code slow-cycle-threshold} est conservé (les {@code slow-cycles}
+ *       derniers) avec ses {@code slowest-users} suivis les plus lents et leur détail par étape.</li>
+ * </ul>
+ * Désactivé, chaque sonde se limite à la lecture d'un booléen.
+ */
+@Slf4j
+@Component
+public class TrackingDiagnostics {
+
+    public record UserEvaluationReport(String userName, long totalMillis, Map<Stage, Long> stageMillis,
+                                       int rewardEvaluations, String slowestAttraction,
+                                       long slowestAttractionMillis) {
+    }
+
+    public record SlowCycleReport(long cycleId, Instant startedAt, long durationMillis, int users,
+                                  List<UserEvaluationReport> slowestUsers) {
+    }
+
+    // Lot en cours: ses suivis se terminent sur plusieurs threads, le dernier clôt le cycle
+    public static final class Cycle {
+        private final long id;
+        private final int users;
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger remaining;
+        private final TrackerCycleEvent event = new TrackerCycleEvent();
+        // Les plus lents du cycle: tas minimum borné (accès sous verrou du cycle)
+        private final PriorityQueue<Evaluation> slowest =
+                new PriorityQueue<>(Comparator.comparingLong(evaluation -> evaluation.totalNanos));
+
+        private Cycle(long id, int users) {
+            this.id = id;
+            this.users = users;
+            this.remaining = new AtomicInteger(users);
+            event.begin();
+        }
+    }
+
+    // Calcul de points en cours (voir RewardsService#getRewardPoints)
+    public final class RewardTrace {
+        private final Attraction attraction;
+        private final User user;
+        private final long startNanos = System.nanoTime();
+        private final RewardEvaluationEvent event = new RewardEvaluationEvent();
+
+        private RewardTrace(Attraction attraction, User user) {
+            this.attraction = attraction;
+            this.user = user;
+            event.begin();
+        }
+
+        public void completed(int points) {
+            long elapsed = System.nanoTime() - startNanos;
+            event.end();
+            if (event.shouldCommit()) {
+                event.userName = user.getUserName();
+                event.attractionName = attraction.attractionName;
+                event.points = points;
+                event.commit();
+            }
+            Evaluation evaluation = current.get();
+            if (evaluation != null) {
+                evaluation.rewardEvaluations++;
+                if (elapsed > evaluation.slowestAttractionNanos) {
+                    evaluation.slowestAttractionNanos = elapsed;
+                    evaluation.slowestAttraction = attraction.attractionName;
+                }
+            }
+        }
+    }
+
+    private static final class Evaluation {
+        private final String userName;
+        private final long startNanos = System.nanoTime();
+        private long lastMarkNanos = startNanos;
+        private final long[] stageNanos = new long[Stage.values().length];
+        private int rewardEvaluations;
+        private String slowestAttraction;
+        private long slowestAttractionNanos;
+        private long totalNanos;
+        private final UserEvaluationEvent event = new UserEvaluationEvent();
+
+        private Evaluation(String userName) {
+            this.userName = userName;
+            event.begin();
+        }
+    }
+
+    private final boolean enabled;
+    private final Duration slowCycleThreshold;
+    private final int maxSlowCycles;
+    private final int slowestUsers;
+    private final boolean jfrRecording;
+    private final Duration jfrMaxAge;
+    private final Path dumpDirectory;
+
+    private final ThreadLocal<Evaluation> current = new ThreadLocal<>();
+    private final AtomicLong cycleIds = new AtomicLong();
+    private final Deque<SlowCycleReport> slowCycles = new ArrayDeque<>();
+    private Recording recording;
+
+    public TrackingDiagnostics(@Value("${tourguide.diagnostics.enabled:false}") boolean enabled,
+                               @Value("${tourguide.diagnostics.slow-cycle-threshold:10s}") Duration slowCycleThreshold,
+                               @Value("${tourguide.diagnostics.slow-cycles:20}") int maxSlowCycles,
+                               @Value("${tourguide.diagnostics.slowest-users:10}") int slowestUsers,
+                               @Value("${tourguide.diagnostics.jfr-recording:true}") boolean jfrRecording,
+                               @Value("${tourguide.diagnostics.jfr-max-age:30m}") Duration jfrMaxAge,
+                               @Value("${tourguide.diagnostics.dump-dir:${java.io.tmpdir}}") String dumpDirectory) {
+        this.enabled = enabled;
+        this.slowCycleThreshold = slowCycleThreshold;
+        this.maxSlowCycles = Math.max(1, maxSlowCycles);
+        this.slowestUsers = Math.max(1, slowestUsers);
+        this.jfrRecording = jfrRecording;
+        this.jfrMaxAge = jfrMaxAge;
+        this.dumpDirectory = Path.of(dumpDirectory);
+    }
+
+    @PostConstruct
+    void startRecording() {
+        if (!enabled || !jfrRecording) {
+            return;
+        }
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (IOException | ParseException e) {
+            log.warn("Configuration JFR 'default' illisible: événements TourGuide seuls", e);
+            recording = new Recording();
+        }
+        recording.setName("tourguide-diagnostics");
+        recording.setMaxAge(jfrMaxAge);
+        recording.setToDisk(true);
+        recording.enable(TrackerCycleEvent.class);
+        recording.enable(UserEvaluationEvent.class);
+        recording.enable(RewardEvaluationEvent.class);
+        recording.start();
+        log.info("Diagnostic du Tracker actif: enregistrement JFR continu ({} conservées)", jfrMaxAge);
+    }
+
+    @PreDestroy
+    void stopRecording() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getSlowCycleThreshold() {
+        return slowCycleThreshold;
+    }
+
+    // Début d'un lot de suivis; null si le diagnostic est désactivé
+    public Cycle startCycle(int users) {
+        if (!enabled || users <= 0) {
+            return null;
+        }
+        return new Cycle(cycleIds.incrementAndGet(), users);
+    }
+
+    public void startEvaluation(String userName) {
+        if (enabled) {
+            current.set(new Evaluation(userName));
+        }
+    }
+
+    // Fin d'une étape du suivi en cours: le temps depuis l'étape précédente lui est attribué
+    public void stageCompleted(Stage stage) {
+        if (!enabled) {
+            return;
+        }
+        Evaluation evaluation = current.get();
+        if (evaluation != null) {
+            long now = System.nanoTime();
+            evaluation.stageNanos[stage.ordinal()] += now - evaluation.lastMarkNanos;
+            evaluation.lastMarkNanos = now;
+        }
+    }
+
+    // Début d'un calcul de points; null si le diagnostic est désactivé
+    public RewardTrace startReward(Attraction attraction, User user) {
+        return enabled ? new RewardTrace(attraction, user) : null;
+    }
+
+    // Fin du suivi en cours (à appeler même en cas d'échec); cycle peut être null
+    public void finishEvaluation(Cycle cycle) {
+        if (!enabled) {
+            return;
+        }
+        Evaluation evaluation = current.get();
+        current.remove();
+        if (evaluation != null) {
+            evaluation.totalNanos = System.nanoTime() - evaluation.startNanos;
+            commit(evaluation, cycle);
+            if (cycle != null) {
+                synchronized (cycle) {
+                    cycle.slowest.add(evaluation);
+                    if (cycle.slowest.size() > slowestUsers) {
+                        cycle.slowest.poll();
+                    }
+                }
+            }
+        }
+        if (cycle != null && cycle.remaining.decrementAndGet() == 0) {
+            completeCycle(cycle);
+        }
+    }
+
+    // Derniers cycles lents, du plus récent au plus ancien
+    public List<SlowCycleReport> getSlowCycles() {
+        synchronized (slowCycles) {
+            return List.copyOf(slowCycles);
+        }
+    }
+
+    /**
+     * Copie l'enregistrement JFR continu dans {@code dump-dir}.
+     *
+     * @return chemin du fichier écrit
+     */
+    public Path dumpRecording() {
+        if (recording == null) {
+            throw new IllegalStateException("Aucun enregistrement JFR actif (tourguide.diagnostics.enabled / jfr-recording)");
+        }
+        try {
+            Files.createDirectories(dumpDirectory);
+            Path file = dumpDirectory.resolve("tourguide-" + System.currentTimeMillis() + ".jfr");
+            recording.dump(file);
+            log.info("Enregistrement JFR copié dans {}", file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Copie de l'enregistrement JFR impossible", e);
+        }
+    }
+
+    private void commit(Evaluation evaluation, Cycle cycle) {
+        UserEvaluationEvent event = evaluation.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.cycleId = cycle != null ? cycle.id : 0;
+            event.userName = evaluation.userName;
+            event.gps = evaluation.stageNanos[Stage.GPS.ordinal()];
+            event.positionIndex = evaluation.stageNanos[Stage.POSITION_INDEX.ordinal()];
+            event.events = evaluation.stageNanos[Stage.EVENTS.ordinal()];
+            event.rewards = evaluation.stageNanos[Stage.REWARDS.ordinal()];
+            event.rewardEvaluations = evaluation.rewardEvaluations;
+            event.slowestAttraction = evaluation.slowestAttraction;
+            event.commit();
+        }
+    }
+
+    private void completeCycle(Cycle cycle) {
+        long durationNanos = System.nanoTime() - cycle.startNanos;
+        List<Evaluation> slowest;
+        synchronized (cycle) {
+            slowest = new ArrayList<>(cycle.slowest);
+        }
+        slowest.sort(Comparator.comparingLong((Evaluation evaluation) -> evaluation.totalNanos).reversed());
+
+        TrackerCycleEvent event = cycle.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.cycleId = cycle.id;
+            event.users = cycle.users;
+            if (!slowest.isEmpty()) {
+                event.slowestUser = slowest.get(0).userName;
+                event.slowestEvaluation = slowest.get(0).totalNanos;
+            }
+            event.commit();
+        }
+
+        if (durationNanos < slowCycleThreshold.toNanos()) {
+            return;
+        }
+        SlowCycleReport report = new SlowCycleReport(cycle.id, cycle.startedAt, millis(durationNanos), cycle.users,
+                slowest.stream().map(TrackingDiagnostics::toReport).toList());
+        synchronized (slowCycles) {
+            slowCycles.addFirst(report);
+            if (slowCycles.size() > maxSlowCycles) {
+                slowCycles.removeLast();
+            }
+        }
+        log.info("Cycle lent du Tracker: {} utilisateurs en {} ms (le plus lent: {})", cycle.users,
+                report.durationMillis(), slowest.isEmpty() ? "-" : slowest.get(0).userName);
+    }
+
+    private static UserEvaluationReport toReport(Evaluation evaluation) {
+        Map<Stage, Long> stages = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, millis(evaluation.stageNanos[stage.ordinal()]));
+        }
+        return new UserEvaluationReport(evaluation.userName, millis(evaluation.totalNanos), stages,
+                evaluation.rewardEvaluations, evaluation.slowestAttraction, millis(evaluation.slowestAttractionNanos));
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,42 @@
+package com.openclassrooms.tourguide.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.openclassrooms.tourguide.UserEvaluation")
+@Label("User Evaluation")
+@Category({"TourGuide", "Tracker"})
+@Description("Suivi d'un utilisateur: position GPS, index, événements, récompenses")
+final class UserEvaluationEvent extends jdk.jfr.Event {
+
+    @Label("Cycle")
+    long cycleId;
+
+    @Label("User")
+    String userName;
+
+    @Label("GPS")
+    @Timespan(Timespan.NANOSECONDS)
+    long gps;
+
+    @Label("Position Index")
+    @Timespan(Timespan.NANOSECONDS)
+    long positionIndex;
+
+    @Label("Events")
+    @Timespan(Timespan.NANOSECONDS)
+    long events;
+
+    @Label("Rewards")
+    @Timespan(Timespan.NANOSECONDS)
+    long rewards;
+
+    @Label("Reward Evaluations")
+    int rewardEvaluations;
+
+    @Label("Slowest Attraction")
+    String slowestAttraction;
+}
@@ -0,0 +1,13 @@
+package com.openclassrooms.tourguide.dto;
+
+/**
+ * Fréquentation d'une attraction : nombre d'utilisateurs dont la dernière position connue
+ * est à moins de {@code radiusMiles} de l'attraction.
+ */
+public record AttractionCrowdDto(
+        String attractionName,
+        double attractionLatitude,
+        double attractionLongitude,
+        double radiusMiles,
+        int users) {
+}
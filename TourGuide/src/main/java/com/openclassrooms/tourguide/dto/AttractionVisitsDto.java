@@ -0,0 +1,9 @@
+package com.openclassrooms.tourguide.dto;
+
+/**
+ * Visites d'une attraction sur une période : positions suivies à moins du rayon de visite.
+ */
+public record AttractionVisitsDto(
+        String attractionName,
+        long visits) {
+}
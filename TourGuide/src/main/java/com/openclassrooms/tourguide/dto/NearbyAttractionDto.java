@@ -0,0 +1,16 @@
+package com.openclassrooms.tourguide.dto;
+
+/**
+ * Réponse de {@code /getNearbyAttractions} pour une attraction.
+ * Remplace la {@code Map<String, Object>} construite par attraction : un seul objet,
+ * valeurs primitives non boxées, écrit par {@link TourGuideJsonSerializers.NearbyAttractionSerializer}.
+ */
+public record NearbyAttractionDto(
+        String attractionName,
+        double attractionLatitude,
+        double attractionLongitude,
+        double userLatitude,
+        double userLongitude,
+        double distanceMiles,
+        int rewardPoints) {
+}
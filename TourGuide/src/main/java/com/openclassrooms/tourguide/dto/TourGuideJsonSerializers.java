@@ -0,0 +1,167 @@
+package com.openclassrooms.tourguide.dto;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.UUIDSerializer;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Sérialiseurs JSON en écriture directe pour les endpoints les plus sollicités.
+ * Les noms de champs sont pré-encodés ({@link SerializedString}) et les valeurs écrites
+ * directement dans le tampon du générateur, sans introspection ni objets intermédiaires.
+ * Le format produit est identique à celui de la sérialisation par réflexion.
+ * Enregistrés automatiquement par Spring Boot via {@link JsonComponent}.
+ */
+@JsonComponent
+public class TourGuideJsonSerializers {
+
+    private static final UUIDSerializer UUID_SERIALIZER = new UUIDSerializer();
+
+    // --- Noms de champs pré-encodés ---
+    private static final SerializableString ATTRACTION_NAME = new SerializedString("attractionName");
+    private static final SerializableString ATTRACTION_LATITUDE = new SerializedString("attractionLatitude");
+    private static final SerializableString ATTRACTION_LONGITUDE = new SerializedString("attractionLongitude");
+    private static final SerializableString USER_LATITUDE = new SerializedString("userLatitude");
+    private static final SerializableString USER_LONGITUDE = new SerializedString("userLongitude");
+    private static final SerializableString DISTANCE_MILES = new SerializedString("distanceMiles");
+    private static final SerializableString REWARD_POINTS = new SerializedString("rewardPoints");
+    private static final SerializableString VISITED_LOCATION = new SerializedString("visitedLocation");
+    private static final SerializableString ATTRACTION = new SerializedString("attraction");
+    private static final SerializableString USER_ID = new SerializedString("userId");
+    private static final SerializableString LOCATION = new SerializedString("location");
+    private static final SerializableString TIME_VISITED = new SerializedString("timeVisited");
+    private static final SerializableString LONGITUDE = new SerializedString("longitude");
+    private static final SerializableString LATITUDE = new SerializedString("latitude");
+    private static final SerializableString CITY = new SerializedString("city");
+    private static final SerializableString STATE = new SerializedString("state");
+    private static final SerializableString ATTRACTION_ID = new SerializedString("attractionId");
+
+    public static class NearbyAttractionSerializer extends JsonSerializer<NearbyAttractionDto> {
+
+        @Override
+        public void serialize(NearbyAttractionDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(dto);
+            gen.writeFieldName(ATTRACTION_NAME);
+            gen.writeString(dto.attractionName());
+            gen.writeFieldName(ATTRACTION_LATITUDE);
+            gen.writeNumber(dto.attractionLatitude());
+            gen.writeFieldName(ATTRACTION_LONGITUDE);
+            gen.writeNumber(dto.attractionLongitude());
+            gen.writeFieldName(USER_LATITUDE);
+            gen.writeNumber(dto.userLatitude());
+            gen.writeFieldName(USER_LONGITUDE);
+            gen.writeNumber(dto.userLongitude());
+            gen.writeFieldName(DISTANCE_MILES);
+            gen.writeNumber(dto.distanceMiles());
+            gen.writeFieldName(REWARD_POINTS);
+            gen.writeNumber(dto.rewardPoints());
+            gen.writeEndObject();
+        }
+    }
+
+    // Écrit la récompense et ses objets imbriqués sans passer par leurs sérialiseurs réflexifs
+    public static class UserRewardSerializer extends JsonSerializer<UserReward> {
+
+        @Override
+        public void serialize(UserReward reward, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(reward);
+            gen.writeFieldName(VISITED_LOCATION);
+            writeVisitedLocation(reward.visitedLocation, gen, provider);
+            gen.writeFieldName(ATTRACTION);
+            writeAttraction(reward.attraction, gen, provider);
+            gen.writeFieldName(REWARD_POINTS);
+            gen.writeNumber(reward.getRewardPoints());
+            gen.writeEndObject();
+        }
+    }
+
+    public static class VisitedLocationSerializer extends JsonSerializer<VisitedLocation> {
+
+        @Override
+        public void serialize(VisitedLocation visitedLocation, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            writeVisitedLocation(visitedLocation, gen, provider);
+        }
+    }
+
+    private static void writeVisitedLocation(VisitedLocation visitedLocation, JsonGenerator gen,
+                                             SerializerProvider provider) throws IOException {
+        if (visitedLocation == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(visitedLocation);
+        gen.writeFieldName(USER_ID);
+        writeUuid(visitedLocation.userId, gen, provider);
+        gen.writeFieldName(LOCATION);
+        // Comme la sérialisation par réflexion, on écrit le type réel (une visite peut être une Attraction)
+        if (visitedLocation.location instanceof Attraction attraction) {
+            writeAttraction(attraction, gen, provider);
+        } else {
+            writeLocation(visitedLocation.location, gen);
+        }
+        gen.writeFieldName(TIME_VISITED);
+        if (visitedLocation.timeVisited == null) {
+            gen.writeNull();
+        } else {
+            // Respecte le format de date configuré (ISO-8601 par défaut avec Spring Boot)
+            provider.defaultSerializeDateValue(visitedLocation.timeVisited, gen);
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeLocation(Location location, JsonGenerator gen) throws IOException {
+        if (location == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(location);
+        gen.writeFieldName(LONGITUDE);
+        gen.writeNumber(location.longitude);
+        gen.writeFieldName(LATITUDE);
+        gen.writeNumber(location.latitude);
+        gen.writeEndObject();
+    }
+
+    private static void writeAttraction(Attraction attraction, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        if (attraction == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(attraction);
+        gen.writeFieldName(LONGITUDE);
+        gen.writeNumber(attraction.longitude);
+        gen.writeFieldName(LATITUDE);
+        gen.writeNumber(attraction.latitude);
+        gen.writeFieldName(ATTRACTION_NAME);
+        gen.writeString(attraction.attractionName);
+        gen.writeFieldName(CITY);
+        gen.writeString(attraction.city);
+        gen.writeFieldName(STATE);
+        gen.writeString(attraction.state);
+        gen.writeFieldName(ATTRACTION_ID);
+        writeUuid(attraction.attractionId, gen, provider);
+        gen.writeEndObject();
+    }
+
+    private static void writeUuid(UUID uuid, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (uuid == null) {
+            gen.writeNull();
+        } else {
+            UUID_SERIALIZER.serialize(uuid, gen, provider);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.openclassrooms.tourguide.dto;
+
+import java.util.UUID;
+
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Location;
+
+/**
+ * Fiche courte d'un utilisateur pour les recherches (par identifiant, e-mail ou zone) :
+ * identité, contact et dernière position connue, sans l'historique ni les récompenses.
+ */
+public record UserSummaryDto(
+        UUID userId,
+        String userName,
+        String emailAddress,
+        Double lastLatitude,
+        Double lastLongitude) {
+
+    public static UserSummaryDto of(User user, Location lastLocation) {
+        return new UserSummaryDto(user.getUserId(), user.getUserName(), user.getEmailAddress(),
+                lastLocation == null ? null : lastLocation.latitude,
+                lastLocation == null ? null : lastLocation.longitude);
+    }
+}
@@ -0,0 +1,11 @@
+package com.openclassrooms.tourguide.dto;
+
+import java.time.Instant;
+
+/**
+ * Attraction visitée par un utilisateur, à l'heure près (début de l'heure UTC).
+ */
+public record UserVisitDto(
+        String attractionName,
+        Instant hour) {
+}
@@ -0,0 +1,11 @@
+package com.openclassrooms.tourguide.dto;
+
+import java.time.Instant;
+
+/**
+ * Nombre de visites (ou de positions, pour une région) d'une tranche horaire ou journalière UTC.
+ */
+public record VisitCountDto(
+        Instant bucketStart,
+        long visits) {
+}
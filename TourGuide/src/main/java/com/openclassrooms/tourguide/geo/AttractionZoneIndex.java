@@ -0,0 +1,164 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Index immuable des zones circulaires (rayon fixe) entourant chaque attraction.
+ * Chaque cellule de la grille référence les seules zones qui l'intersectent : tester une
+ * position revient à lire une cellule puis à calculer quelques distances, au lieu de
+ * parcourir toutes les attractions. Les zones trop étendues (rayon de plusieurs milliers
+ * de milles) sont conservées dans une liste "partout" testée pour chaque position.
+ */
+public final class AttractionZoneIndex {
+
+    // Au-delà, une zone est considérée comme couvrant toute la grille
+    private static final int MAX_CELLS_PER_ZONE = 4096;
+
+    private static final int[] NO_ZONES = new int[0];
+
+    private final GeoGrid grid;
+    private final double radiusMiles;
+    private final Attraction[] attractions;
+
+    // Trigonométrie précalculée par zone (mêmes formules que GeoGrid.distanceMiles)
+    private final double[] sinLat;
+    private final double[] cosLat;
+    private final double[] lonRadians;
+
+    // Zones candidates par cellule (null = seulement les zones "partout")
+    private final int[][] zonesByCell;
+    private final int[] everywhere;
+
+    private AttractionZoneIndex(GeoGrid grid, double radiusMiles, Attraction[] attractions,
+                                double[] sinLat, double[] cosLat, double[] lonRadians,
+                                int[][] zonesByCell, int[] everywhere) {
+        this.grid = grid;
+        this.radiusMiles = radiusMiles;
+        this.attractions = attractions;
+        this.sinLat = sinLat;
+        this.cosLat = cosLat;
+        this.lonRadians = lonRadians;
+        this.zonesByCell = zonesByCell;
+        this.everywhere = everywhere;
+    }
+
+    public static AttractionZoneIndex build(List<Attraction> attractions, double radiusMiles, GeoGrid grid) {
+        int n = attractions.size();
+        Attraction[] zones = attractions.toArray(new Attraction[0]);
+        double[] sinLat = new double[n];
+        double[] cosLat = new double[n];
+        double[] lonRadians = new double[n];
+
+        List<Integer> everywhereList = new ArrayList<>();
+        List<List<Integer>> cellLists = new ArrayList<>(grid.cellCount());
+        for (int c = 0; c < grid.cellCount(); c++) {
+            cellLists.add(null);
+        }
+
+        for (int i = 0; i < n; i++) {
+            Attraction attraction = zones[i];
+            double lat = Math.toRadians(attraction.latitude);
+            sinLat[i] = Math.sin(lat);
+            cosLat[i] = Math.cos(lat);
+            lonRadians[i] = Math.toRadians(attraction.longitude);
+
+            int[] cells = grid.cellsWithin(attraction.latitude, attraction.longitude, radiusMiles, MAX_CELLS_PER_ZONE);
+            if (cells == null) {
+                everywhereList.add(i);
+                continue;
+            }
+            for (int cell : cells) {
+                List<Integer> list = cellLists.get(cell);
+                if (list == null) {
+                    list = new ArrayList<>(2);
+                    cellLists.set(cell, list);
+                }
+                list.add(i);
+            }
+        }
+
+        int[] everywhere = everywhereList.stream().mapToInt(Integer::intValue).toArray();
+        int[][] zonesByCell = new int[grid.cellCount()][];
+        for (int c = 0; c < zonesByCell.length; c++) {
+            List<Integer> list = cellLists.get(c);
+            if (list != null) {
+                // Les zones "partout" sont recopiées dans chaque cellule: une seule lecture par position
+                int[] merged = new int[list.size() + everywhere.length];
+                for (int k = 0; k < list.size(); k++) {
+                    merged[k] = list.get(k);
+                }
+                System.arraycopy(everywhere, 0, merged, list.size(), everywhere.length);
+                zonesByCell[c] = merged;
+            }
+        }
+        return new AttractionZoneIndex(grid, radiusMiles, zones, sinLat, cosLat, lonRadians,
+                zonesByCell, everywhere.length == 0 ? NO_ZONES : everywhere);
+    }
+
+    public double radiusMiles() {
+        return radiusMiles;
+    }
+
+    public int size() {
+        return attractions.length;
+    }
+
+    public Attraction attraction(int zone) {
+        return attractions[zone];
+    }
+
+    /**
+     * Déclenche {@code onEnter} pour chaque attraction dont la zone contient la position
+     * (distance inférieure ou égale au rayon).
+     */
+    public void forEachZoneContaining(Location location, Consumer<Attraction> onEnter) {
+        forEachZoneIndexContaining(location, zone -> onEnter.accept(attractions[zone]));
+    }
+
+    // Même parcours, en indices de zone (0..size()-1) pour les agrégats tenus dans des tableaux
+    public void forEachZoneIndexContaining(Location location, IntConsumer onEnter) {
+        int[] candidates = candidates(location.latitude, location.longitude);
+        if (candidates.length == 0) {
+            return;
+        }
+        double lat = Math.toRadians(location.latitude);
+        double sin = Math.sin(lat);
+        double cos = Math.cos(lat);
+        double lon = Math.toRadians(location.longitude);
+        for (int i : candidates) {
+            if (GeoGrid.distanceMilesRadians(sinLat[i], cosLat[i], lonRadians[i], sin, cos, lon) <= radiusMiles) {
+                onEnter.accept(i);
+            }
+        }
+    }
+
+    // Indique si au moins une zone contient la position
+    public boolean anyZoneContains(Location location) {
+        int[] candidates = candidates(location.latitude, location.longitude);
+        if (candidates.length == 0) {
+            return false;
+        }
+        double lat = Math.toRadians(location.latitude);
+        double sin = Math.sin(lat);
+        double cos = Math.cos(lat);
+        double lon = Math.toRadians(location.longitude);
+        for (int i : candidates) {
+            if (GeoGrid.distanceMilesRadians(sinLat[i], cosLat[i], lonRadians[i], sin, cos, lon) <= radiusMiles) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Indices des zones susceptibles de contenir la position (à confirmer par la distance)
+    private int[] candidates(double latitude, double longitude) {
+        int[] zones = zonesByCell[grid.cellOf(latitude, longitude)];
+        return zones != null ? zones : everywhere;
+    }
+}
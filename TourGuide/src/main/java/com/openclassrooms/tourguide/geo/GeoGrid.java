@@ -0,0 +1,147 @@
+package com.openclassrooms.tourguide.geo;
+
+/**
+ * Découpage de la surface terrestre en cellules latitude/longitude de taille fixe.
+ * Une cellule est identifiée par un entier dense (ligne * colonnes + colonne), ce qui permet
+ * d'indexer des données par cellule dans de simples tableaux.
+ */
+public final class GeoGrid {
+
+    // Facteur de conversion milles nautiques -> milles terrestres
+    public static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
+
+    // Un degré d'arc de grand cercle = 60 milles nautiques
+    public static final double MILES_PER_DEGREE = 60 * STATUTE_MILES_PER_NAUTICAL_MILE;
+
+    // Marge absorbant les erreurs d'arrondi en bord de zone (en degrés, ~ 7 cm)
+    private static final double EDGE_MARGIN_DEGREES = 1e-6;
+
+    private final double cellSizeDegrees;
+    private final int rows;
+    private final int columns;
+
+    public GeoGrid(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 180) {
+            throw new IllegalArgumentException("Taille de cellule invalide: " + cellSizeDegrees);
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.rows = (int) Math.ceil(180 / cellSizeDegrees);
+        this.columns = (int) Math.ceil(360 / cellSizeDegrees);
+    }
+
+    public int cellCount() {
+        return rows * columns;
+    }
+
+    // Cellule contenant la position (la longitude est ramenée dans [-180, 180[)
+    public int cellOf(double latitude, double longitude) {
+        return rowOf(latitude) * columns + columnOf(longitude);
+    }
+
+    /**
+     * Cellules intersectant le cercle de rayon {@code radiusMiles} autour de la position.
+     * L'emprise en longitude est calculée exactement (asin(sin δ / cos φ)) et englobe
+     * toutes les longitudes dès que le cercle contient un pôle.
+     *
+     * @return les identifiants de cellules, ou {@code null} si le cercle en couvre plus de {@code maxCells}
+     */
+    public int[] cellsWithin(double latitude, double longitude, double radiusMiles, int maxCells) {
+        double radiusDegrees = radiusMiles / MILES_PER_DEGREE + EDGE_MARGIN_DEGREES;
+        if (radiusDegrees >= 180) {
+            return rows * columns <= maxCells ? allCells() : null;
+        }
+        double minLat = latitude - radiusDegrees;
+        double maxLat = latitude + radiusDegrees;
+
+        boolean allLongitudes = minLat <= -90 || maxLat >= 90;
+        double lonDelta = 0;
+        if (!allLongitudes) {
+            double ratio = Math.sin(Math.toRadians(radiusDegrees)) / Math.cos(Math.toRadians(latitude));
+            allLongitudes = ratio >= 1;
+            lonDelta = allLongitudes ? 0 : Math.toDegrees(Math.asin(ratio)) + EDGE_MARGIN_DEGREES;
+        }
+
+        int firstRow = rowOf(minLat);
+        int lastRow = rowOf(maxLat);
+        int firstColumn;
+        int columnSpan;
+        if (allLongitudes || 2 * lonDelta >= 360) {
+            firstColumn = 0;
+            columnSpan = columns;
+        } else {
+            firstColumn = (int) Math.floor((longitude - lonDelta + 180) / cellSizeDegrees);
+            int lastColumn = (int) Math.floor((longitude + lonDelta + 180) / cellSizeDegrees);
+            columnSpan = Math.min(columns, lastColumn - firstColumn + 1);
+        }
+
+        long count = (long) (lastRow - firstRow + 1) * columnSpan;
+        if (count > maxCells) {
+            return null;
+        }
+        int[] cells = new int[(int) count];
+        int i = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int c = 0; c < columnSpan; c++) {
+                cells[i++] = row * columns + Math.floorMod(firstColumn + c, columns);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Indique si la cellule est entièrement contenue dans le cercle : ses quatre coins sont
+     * dans le rayon. Réservé aux rayons inférieurs à 60° d'arc (vers l'antipode, la distance
+     * maximale peut être atteinte hors des coins) ; renvoie {@code false} sinon.
+     */
+    public boolean cellWithin(int cell, double latitude, double longitude, double radiusMiles) {
+        if (radiusMiles >= 60 * MILES_PER_DEGREE) {
+            return false;
+        }
+        int row = cell / columns;
+        int column = cell % columns;
+        double south = row * cellSizeDegrees - 90;
+        double north = Math.min(90, south + cellSizeDegrees);
+        double west = column * cellSizeDegrees - 180;
+        double east = Math.min(180, west + cellSizeDegrees);
+        return distanceMiles(latitude, longitude, south, west) <= radiusMiles
+                && distanceMiles(latitude, longitude, south, east) <= radiusMiles
+                && distanceMiles(latitude, longitude, north, west) <= radiusMiles
+                && distanceMiles(latitude, longitude, north, east) <= radiusMiles;
+    }
+
+    // Distance sphérique (grand cercle) en milles terrestres, positions en degrés
+    public static double distanceMiles(double lat1Degrees, double lon1Degrees, double lat2Degrees, double lon2Degrees) {
+        double lat1 = Math.toRadians(lat1Degrees);
+        double lon1 = Math.toRadians(lon1Degrees);
+        double lat2 = Math.toRadians(lat2Degrees);
+        double lon2 = Math.toRadians(lon2Degrees);
+        return distanceMilesRadians(Math.sin(lat1), Math.cos(lat1), lon1, Math.sin(lat2), Math.cos(lat2), lon2);
+    }
+
+    // Même calcul à partir de sinus/cosinus de latitude précalculés (longitudes en radians)
+    public static double distanceMilesRadians(double sinLat1, double cosLat1, double lon1,
+                                              double sinLat2, double cosLat2, double lon2) {
+        double cosAngle = sinLat1 * sinLat2 + cosLat1 * cosLat2 * Math.cos(lon1 - lon2);
+        // Arrondi: pour deux points (quasi) confondus le cosinus peut dépasser 1, acos donnerait NaN
+        double angle = Math.acos(Math.max(-1, Math.min(1, cosAngle)));
+        double nauticalMiles = 60 * Math.toDegrees(angle);
+        return STATUTE_MILES_PER_NAUTICAL_MILE * nauticalMiles;
+    }
+
+    private int rowOf(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / cellSizeDegrees);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    private int columnOf(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellSizeDegrees), columns);
+    }
+
+    private int[] allCells() {
+        int[] cells = new int[rows * columns];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+        return cells;
+    }
+}
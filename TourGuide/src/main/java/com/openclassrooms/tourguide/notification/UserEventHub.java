@@ -0,0 +1,316 @@
+package com.openclassrooms.tourguide.notification;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Diffusion en temps réel (server-sent events) des événements d'un utilisateur :
+ * récompense attribuée ({@value #REWARD_EVENT}) et nouvelle position ({@value #LOCATION_EVENT}).
+ * <ul>
+ *   <li>chaque abonné a un tampon borné ({@code tourguide.events.buffer-size}) ; la chaîne de suivi
+ *       ne fait qu'y déposer l'événement et n'attend jamais le réseau ;</li>
+ *   <li>l'envoi est assuré par un petit pool dédié, un seul envoi à la fois par abonné ;</li>
+ *   <li>chaque écriture est bornée par {@code tourguide.events.send-timeout} : au-delà, le thread
+ *       d'envoi est interrompu et l'abonné déconnecté, quelques clients bloqués (connexion TCP saturée)
+ *       ne peuvent donc pas monopoliser le pool ;</li>
+ *   <li>un abonné dont le tampon déborde (client trop lent ou bloqué) est déconnecté : il se
+ *       réabonne et relit {@code /getRewards} une fois ;</li>
+ *   <li>les flux déconnectés sont fermés par un pool séparé, jamais par les threads d'envoi ;</li>
+ *   <li>un commentaire périodique détecte les connexions mortes.</li>
+ * </ul>
+ * Sans abonné pour l'utilisateur, publier un événement coûte une lecture de table.
+ */
+@Slf4j
+@Component
+public class UserEventHub {
+
+    public static final String REWARD_EVENT = "reward";
+    public static final String LOCATION_EVENT = "location";
+
+    // name == null: commentaire de maintien de connexion
+    private record PendingEvent(long id, String name, Object data) {
+    }
+
+    private static final PendingEvent HEARTBEAT = new PendingEvent(0, null, null);
+
+    private static final class Subscriber {
+        final UUID userId;
+        final SseEmitter emitter;
+        final BlockingQueue<PendingEvent> buffer;
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean closed;
+        // Thread en cours d'écriture et début de l'écriture (modifiés sous le moniteur de l'abonné)
+        Thread writer;
+        long writeStartedNanos;
+        // Écriture en cours interrompue par la fermeture du flux (et non par l'arrêt des threads d'envoi)
+        boolean writerInterrupted;
+
+        Subscriber(UUID userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Duration heartbeat;
+    private final Duration sendTimeout;
+
+    private final ConcurrentMap<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ExecutorService senders;
+    // Fermeture des flux: une fermeture peut attendre la fin (ou l'interruption) d'une écriture en cours
+    private final ExecutorService closers = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "user-events-closer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "user-events-heartbeat");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Counter publishedEvents;
+    private final Counter evictedSubscribers;
+    private final Counter stalledSubscribers;
+
+    public UserEventHub(MeterRegistry meterRegistry,
+                        @Value("${tourguide.events.buffer-size:64}") int bufferSize,
+                        @Value("${tourguide.events.timeout:30m}") Duration timeout,
+                        @Value("${tourguide.events.heartbeat:30s}") Duration heartbeat,
+                        @Value("${tourguide.events.sender-threads:4}") int senderThreads,
+                        @Value("${tourguide.events.send-timeout:10s}") Duration sendTimeout) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.timeout = timeout;
+        this.heartbeat = heartbeat;
+        this.sendTimeout = sendTimeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), r -> {
+            Thread t = new Thread(r, "user-events-sender-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.publishedEvents = Counter.builder("tourguide.events.published")
+                .description("Événements déposés dans les tampons des abonnés")
+                .register(meterRegistry);
+        this.evictedSubscribers = Counter.builder("tourguide.events.evicted")
+                .description("Abonnés déconnectés car trop lents (tampon plein)")
+                .register(meterRegistry);
+        this.stalledSubscribers = Counter.builder("tourguide.events.stalled")
+                .description("Abonnés déconnectés car une écriture a dépassé send-timeout")
+                .register(meterRegistry);
+        Gauge.builder("tourguide.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Flux d'événements ouverts")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long period = heartbeat.toMillis();
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, period, period, TimeUnit.MILLISECONDS);
+        // Vérifie les écritures en cours plusieurs fois par délai: dépassement détecté à 25 % près
+        long check = Math.max(10, sendTimeout.toMillis() / 4);
+        heartbeats.scheduleWithFixedDelay(this::closeStalledWriters, check, check, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+        closers.shutdown();
+    }
+
+    // Ouvre un flux pour l'utilisateur
+    public SseEmitter subscribe(User user) {
+        return register(user.getUserId(), new SseEmitter(timeout.toMillis()));
+    }
+
+    // Rattache un flux existant à l'utilisateur (le flux est fermé à la déconnexion ou à l'éviction)
+    public SseEmitter register(UUID userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        // compute: atomique avec le retrait des ensembles vides dans remove()
+        subscribers.compute(userId, (id, set) -> {
+            Set<Subscriber> current = set != null ? set : ConcurrentHashMap.newKeySet();
+            current.add(subscriber);
+            return current;
+        });
+        subscriberCount.incrementAndGet();
+        return emitter;
+    }
+
+    public int getSubscriberCount(UUID userId) {
+        Set<Subscriber> set = subscribers.get(userId);
+        return set == null ? 0 : set.size();
+    }
+
+    public void rewardGranted(User user, UserReward reward) {
+        publish(user.getUserId(), REWARD_EVENT, reward);
+    }
+
+    public void locationUpdated(User user, VisitedLocation visitedLocation) {
+        publish(user.getUserId(), LOCATION_EVENT, visitedLocation);
+    }
+
+    private void publish(UUID userId, String name, Object data) {
+        Set<Subscriber> set = subscribers.get(userId);
+        if (set == null || set.isEmpty()) {
+            return;
+        }
+        PendingEvent event = new PendingEvent(eventIds.incrementAndGet(), name, data);
+        for (Subscriber subscriber : set) {
+            enqueue(subscriber, event);
+        }
+        publishedEvents.increment();
+    }
+
+    private void sendHeartbeats() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> enqueue(subscriber, HEARTBEAT)));
+    }
+
+    private void enqueue(Subscriber subscriber, PendingEvent event) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (!subscriber.buffer.offer(event)) {
+            evict(subscriber);
+            return;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    // Vide le tampon d'un abonné; un seul thread à la fois par abonné
+    private void drain(Subscriber subscriber) {
+        do {
+            PendingEvent event;
+            while (!subscriber.closed && (event = subscriber.buffer.poll()) != null) {
+                if (!send(subscriber, event)) {
+                    return;
+                }
+            }
+            subscriber.sending.set(false);
+            // Un événement déposé entre le dernier poll et la remise à false serait sinon oublié
+        } while (!subscriber.closed && !subscriber.buffer.isEmpty() && subscriber.sending.compareAndSet(false, true));
+    }
+
+    private boolean send(Subscriber subscriber, PendingEvent event) {
+        synchronized (subscriber) {
+            if (subscriber.closed) {
+                return false;
+            }
+            subscriber.writer = Thread.currentThread();
+            subscriber.writeStartedNanos = System.nanoTime();
+        }
+        try {
+            if (event.name() == null) {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } else {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.id()))
+                        .name(event.name())
+                        .data(event.data(), MediaType.APPLICATION_JSON));
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté, flux déjà terminé ou écriture interrompue après send-timeout
+            remove(subscriber);
+            return false;
+        } finally {
+            synchronized (subscriber) {
+                subscriber.writer = null;
+                // Interruption de fermeture arrivée après la fin de l'écriture: sans objet pour la suite.
+                // Toute autre interruption (arrêt des threads d'envoi) est conservée.
+                if (subscriber.writerInterrupted) {
+                    subscriber.writerInterrupted = false;
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    // Interrompt les écritures bloquées au-delà de send-timeout et déconnecte leurs abonnés
+    private void closeStalledWriters() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> {
+            boolean stalled;
+            synchronized (subscriber) {
+                stalled = subscriber.writer != null && now - subscriber.writeStartedNanos > sendTimeout.toNanos();
+            }
+            if (stalled && remove(subscriber)) {
+                stalledSubscribers.increment();
+                log.debug("Flux d'événements de {} fermé: écriture bloquée depuis plus de {} ms",
+                        subscriber.userId, sendTimeout.toMillis());
+                close(subscriber);
+            }
+        }));
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (!remove(subscriber)) {
+            return;
+        }
+        evictedSubscribers.increment();
+        log.debug("Flux d'événements de {} fermé: client trop lent ({} événements en attente)",
+                subscriber.userId, bufferSize);
+        close(subscriber);
+    }
+
+    // Fermeture hors du thread de suivi et des threads d'envoi; une écriture en cours est interrompue
+    private void close(Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.writer != null) {
+                subscriber.writerInterrupted = true;
+                subscriber.writer.interrupt();
+            }
+        }
+        closers.execute(subscriber.emitter::complete);
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        Set<Subscriber> set = subscribers.get(subscriber.userId);
+        if (set == null || !set.remove(subscriber)) {
+            return false;
+        }
+        subscriber.closed = true;
+        subscriber.buffer.clear();
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.userId, (id, current) -> current.isEmpty() ? null : current);
+        return true;
+    }
+}
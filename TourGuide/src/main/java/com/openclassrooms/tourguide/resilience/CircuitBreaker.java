@@ -0,0 +1,126 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.Arrays;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Disjoncteur à fenêtre glissante (nombre d'appels) d'un {@link DependencyGuard}.
+ * <ul>
+ *   <li>fermé : chaque résultat entre dans la fenêtre ; ouverture quand le taux d'échecs atteint le seuil
+ *       (au moins {@code minimumCalls} résultats) ;</li>
+ *   <li>ouvert : appels refusés pendant {@code waitInOpen} ;</li>
+ *   <li>semi-ouvert : {@code halfOpenCalls} appels d'essai ; tous réussis, il se referme, un échec le rouvre.</li>
+ * </ul>
+ */
+@Slf4j
+final class CircuitBreaker {
+
+    // Ordre = valeur de la jauge tourguide.dependency.circuit.state
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String name;
+    private final boolean[] failures;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long waitInOpenNanos;
+    private final int halfOpenCalls;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failed;
+    private long openUntilNanos;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    CircuitBreaker(String name, DependencyGuard.Settings settings) {
+        this.name = name;
+        this.failures = new boolean[Math.max(1, settings.slidingWindow())];
+        this.minimumCalls = Math.max(1, Math.min(settings.minimumCalls(), failures.length));
+        this.failureRateThreshold = settings.failureRateThreshold();
+        this.waitInOpenNanos = settings.waitInOpen().toNanos();
+        this.halfOpenCalls = Math.max(1, settings.halfOpenCalls());
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openUntilNanos < 0) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialPermits = halfOpenCalls;
+            trialSuccesses = 0;
+            log.info("Disjoncteur {} semi-ouvert: {} appels d'essai", name, halfOpenCalls);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialPermits == 0) {
+                return false;
+            }
+            trialPermits--;
+        }
+        return true;
+    }
+
+    // Permission accordée mais appel non lancé (cloison pleine)
+    synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialSuccesses >= halfOpenCalls) {
+                reset(State.CLOSED);
+                log.info("Disjoncteur {} refermé", name);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && (double) failed / recorded >= failureRateThreshold) {
+                log.warn("Disjoncteur {} ouvert: {} échecs sur les {} derniers appels", name, failed, recorded);
+                open();
+            }
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == failures.length) {
+            if (failures[next]) {
+                failed--;
+            }
+        } else {
+            recorded++;
+        }
+        failures[next] = failure;
+        if (failure) {
+            failed++;
+        }
+        next = (next + 1) % failures.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openUntilNanos = System.nanoTime() + waitInOpenNanos;
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        next = 0;
+        recorded = 0;
+        failed = 0;
+        Arrays.fill(failures, false);
+    }
+}
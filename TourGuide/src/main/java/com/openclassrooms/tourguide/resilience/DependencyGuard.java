@@ -0,0 +1,260 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Protection des appels à une dépendance externe (GpsUtil, RewardCentral ou TripPricer).
+ * <ul>
+ *   <li>cloison : au plus {@code max-concurrent-calls} appels en cours, exécutés sur le pool dédié de la
+ *       dépendance ; un appelant bloquant attend une place au plus {@code max-wait}, un appel asynchrone
+ *       est refusé aussitôt ;</li>
+ *   <li>délai : au-delà de {@code timeout}, l'appelant est libéré ; l'appel garde sa place jusqu'à sa fin,
+ *       une dépendance lente remplit donc la cloison au lieu d'accumuler les threads ;</li>
+ *   <li>requête doublée : sans réponse après {@code hedge-after}, un second appel identique part s'il reste
+ *       une place et que le disjoncteur est fermé ; la première réponse l'emporte ;</li>
+ *   <li>disjoncteur : voir {@link CircuitBreaker} ; les délais dépassés comptent comme des échecs.</li>
+ * </ul>
+ * Tout refus ou échec lève {@link DependencyUnavailableException} : le repli appartient à l'appelant,
+ * qui le signale par {@link #recordFallback()}.
+ * <p>
+ * Métriques (étiquette {@code dependency}) : {@code tourguide.dependency.calls} (durée par {@code outcome}),
+ * {@code tourguide.dependency.hedges}, {@code tourguide.dependency.fallbacks},
+ * {@code tourguide.dependency.circuit.state} (0 fermé, 1 semi-ouvert, 2 ouvert) et
+ * {@code tourguide.dependency.bulkhead.available}.
+ */
+public class DependencyGuard {
+
+    public enum Outcome { SUCCESS, FAILURE, TIMEOUT, REJECTED, CIRCUIT_OPEN }
+
+    /**
+     * Réglages d'une dépendance ; {@code hedgeAfter} nul désactive la requête doublée.
+     */
+    public record Settings(Duration timeout, int maxConcurrentCalls, Duration maxWait, Duration hedgeAfter,
+                           int slidingWindow, int minimumCalls, double failureRateThreshold,
+                           Duration waitInOpen, int halfOpenCalls) {
+
+        public static Settings defaults(int maxConcurrentCalls, Duration hedgeAfter) {
+            return new Settings(Duration.ofSeconds(2), maxConcurrentCalls, Duration.ofSeconds(2), hedgeAfter,
+                    50, 20, 0.5, Duration.ofSeconds(30), 5);
+        }
+
+        // tourguide.resilience.<dépendance>.<clé>, puis tourguide.resilience.<clé> (commun), puis défaut
+        public static Settings from(Environment environment, String dependency, Settings defaults) {
+            Lookup lookup = new Lookup(environment, dependency);
+            return new Settings(
+                    lookup.get("timeout", Duration.class, defaults.timeout()),
+                    lookup.get("max-concurrent-calls", Integer.class, defaults.maxConcurrentCalls()),
+                    lookup.get("max-wait", Duration.class, defaults.maxWait()),
+                    lookup.get("hedge-after", Duration.class, defaults.hedgeAfter()),
+                    lookup.get("sliding-window", Integer.class, defaults.slidingWindow()),
+                    lookup.get("minimum-calls", Integer.class, defaults.minimumCalls()),
+                    lookup.get("failure-rate-threshold", Double.class, defaults.failureRateThreshold()),
+                    lookup.get("wait-in-open", Duration.class, defaults.waitInOpen()),
+                    lookup.get("half-open-calls", Integer.class, defaults.halfOpenCalls()));
+        }
+
+        private record Lookup(Environment environment, String dependency) {
+
+            <T> T get(String key, Class<T> type, T defaultValue) {
+                T shared = environment.getProperty("tourguide.resilience." + key, type, defaultValue);
+                return environment.getProperty("tourguide.resilience." + dependency + "." + key, type, shared);
+            }
+        }
+    }
+
+    @Getter
+    private final String name;
+    @Getter
+    private final Settings settings;
+    private final Scheduler scheduler;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Map<Outcome, Timer> calls = new EnumMap<>(Outcome.class);
+    private final Counter hedges;
+    private final Counter fallbacks;
+
+    public DependencyGuard(String name, Settings settings, Scheduler scheduler, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.scheduler = scheduler;
+        this.bulkhead = new Semaphore(Math.max(1, settings.maxConcurrentCalls()));
+        this.circuitBreaker = new CircuitBreaker(name, settings);
+        for (Outcome outcome : Outcome.values()) {
+            calls.put(outcome, Timer.builder("tourguide.dependency.calls")
+                    .description("Appels aux dépendances externes, par issue")
+                    .tag("dependency", name)
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        this.hedges = Counter.builder("tourguide.dependency.hedges")
+                .description("Appels doublés après hedge-after sans réponse")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("tourguide.dependency.fallbacks")
+                .description("Réponses servies par repli (dernière valeur connue, cache)")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        Gauge.builder("tourguide.dependency.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("État du disjoncteur: 0 fermé, 1 semi-ouvert, 2 ouvert")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        Gauge.builder("tourguide.dependency.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Places libres dans la cloison")
+                .tag("dependency", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appel bloquant : attend une place au plus {@code max-wait}, puis la réponse au plus {@code timeout}.
+     */
+    public <T> T call(Callable<T> call) {
+        CompletableFuture<T> result = execute(call, settings.maxWait().toNanos());
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw (DependencyUnavailableException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyUnavailableException(name, Outcome.REJECTED, "attente interrompue", e);
+        }
+    }
+
+    // Appel asynchrone (refusé aussitôt si la cloison est pleine)
+    public <T> CompletableFuture<T> submit(Callable<T> call) {
+        return execute(call, 0);
+    }
+
+    public <T> Mono<T> mono(Callable<T> call) {
+        return Mono.fromFuture(() -> submit(call));
+    }
+
+    public void recordFallback() {
+        fallbacks.increment();
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    private <T> CompletableFuture<T> execute(Callable<T> call, long maxWaitNanos) {
+        long start = System.nanoTime();
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return rejected(Outcome.CIRCUIT_OPEN, start, "disjoncteur ouvert");
+        }
+        if (!acquire(maxWaitNanos)) {
+            circuitBreaker.releasePermission();
+            return rejected(Outcome.REJECTED, start, "cloison pleine");
+        }
+
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger(1);
+        attempt(call, first, attempts);
+        if (!settings.hedgeAfter().isZero()) {
+            Disposable hedge = Schedulers.parallel().schedule(() -> hedge(call, first, attempts),
+                    settings.hedgeAfter().toNanos(), TimeUnit.NANOSECONDS);
+            first.whenComplete((value, error) -> hedge.dispose());
+        }
+
+        CompletableFuture<T> guarded = new CompletableFuture<>();
+        first.orTimeout(settings.timeout().toNanos(), TimeUnit.NANOSECONDS).whenComplete((value, error) -> {
+            Outcome outcome = error == null ? Outcome.SUCCESS
+                    : error instanceof TimeoutException ? Outcome.TIMEOUT : Outcome.FAILURE;
+            if (outcome == Outcome.SUCCESS) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+            calls.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (error == null) {
+                guarded.complete(value);
+            } else {
+                guarded.completeExceptionally(new DependencyUnavailableException(name, outcome,
+                        outcome == Outcome.TIMEOUT ? "pas de réponse en " + settings.timeout().toMillis() + " ms"
+                                : error.toString(), error));
+            }
+        });
+        return guarded;
+    }
+
+    // Second appel si la place et le disjoncteur le permettent; jamais plus de deux
+    private <T> void hedge(Callable<T> call, CompletableFuture<T> first, AtomicInteger attempts) {
+        if (first.isDone() || circuitBreaker.state() != CircuitBreaker.State.CLOSED || !bulkhead.tryAcquire()) {
+            return;
+        }
+        attempts.incrementAndGet();
+        hedges.increment();
+        attempt(call, first, attempts);
+    }
+
+    // Exécution sur le pool de la dépendance; la place est rendue à la fin de l'appel, même après le délai
+    private <T> void attempt(Callable<T> call, CompletableFuture<T> first, AtomicInteger attempts) {
+        try {
+            scheduler.schedule(() -> {
+                T value = null;
+                Exception failure = null;
+                try {
+                    value = call.call();
+                } catch (Exception e) {
+                    failure = e;
+                } finally {
+                    bulkhead.release();
+                }
+                if (failure == null) {
+                    first.complete(value);
+                } else {
+                    failAttempt(first, attempts, failure);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            failAttempt(first, attempts, e);
+        }
+    }
+
+    // Échec global seulement quand toutes les tentatives ont échoué
+    private static void failAttempt(CompletableFuture<?> first, AtomicInteger attempts, Exception e) {
+        if (attempts.decrementAndGet() == 0) {
+            first.completeExceptionally(e);
+        }
+    }
+
+    private boolean acquire(long maxWaitNanos) {
+        if (maxWaitNanos <= 0) {
+            return bulkhead.tryAcquire();
+        }
+        try {
+            return bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T> CompletableFuture<T> rejected(Outcome outcome, long start, String message) {
+        calls.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return CompletableFuture.failedFuture(new DependencyUnavailableException(name, outcome, message, null));
+    }
+}
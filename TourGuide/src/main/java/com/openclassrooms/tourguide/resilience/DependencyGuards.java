@@ -0,0 +1,45 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.time.Duration;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.config.BlockingCallSchedulers;
+import com.openclassrooms.tourguide.resilience.DependencyGuard.Settings;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Une protection par dépendance externe, sur son pool dédié (voir {@link BlockingCallSchedulers}).
+ * Réglages {@code tourguide.resilience.*} ; par défaut la cloison a la taille du pool et seuls les appels
+ * RewardCentral (latence très dispersée) sont doublés.
+ */
+@Component
+@Getter
+@Accessors(fluent = true)
+public class DependencyGuards {
+
+    private final DependencyGuard gps;
+    private final DependencyGuard rewards;
+    private final DependencyGuard tripPricer;
+
+    public DependencyGuards(BlockingCallSchedulers schedulers, MeterRegistry meterRegistry, Environment environment) {
+        this.gps = new DependencyGuard("gps",
+                Settings.from(environment, "gps", Settings.defaults(
+                        environment.getProperty("tourguide.reactive.gps.threads", Integer.class, 64), Duration.ZERO)),
+                schedulers.gps(), meterRegistry);
+        this.rewards = new DependencyGuard("rewards",
+                Settings.from(environment, "rewards", Settings.defaults(
+                        environment.getProperty("tourguide.reactive.rewards.threads", Integer.class, 64),
+                        Duration.ofMillis(950))),
+                schedulers.rewards(), meterRegistry);
+        this.tripPricer = new DependencyGuard("trip-pricer",
+                Settings.from(environment, "trip-pricer", Settings.defaults(
+                        environment.getProperty("tourguide.reactive.trip-pricer.threads", Integer.class, 16),
+                        Duration.ZERO)),
+                schedulers.tripPricer(), meterRegistry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.openclassrooms.tourguide.resilience;
+
+import lombok.Getter;
+
+/**
+ * Appel à une dépendance externe refusé ou en échec (délai dépassé, cloison pleine, disjoncteur ouvert,
+ * erreur de la dépendance). L'appelant choisit son repli.
+ */
+@Getter
+public class DependencyUnavailableException extends RuntimeException {
+
+    private final String dependency;
+    private final DependencyGuard.Outcome outcome;
+
+    public DependencyUnavailableException(String dependency, DependencyGuard.Outcome outcome, String message,
+                                          Throwable cause) {
+        super(dependency + ": " + message, cause);
+        this.dependency = dependency;
+        this.outcome = outcome;
+    }
+}
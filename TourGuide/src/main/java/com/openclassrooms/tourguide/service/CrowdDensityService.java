@@ -0,0 +1,170 @@
+package com.openclassrooms.tourguide.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.AttractionCatalogListener;
+import com.openclassrooms.tourguide.catalog.AttractionSnapshot;
+import com.openclassrooms.tourguide.dto.AttractionCrowdDto;
+import com.openclassrooms.tourguide.geo.AttractionZoneIndex;
+import com.openclassrooms.tourguide.geo.GeoGrid;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserIndex;
+import com.openclassrooms.tourguide.user.UserPositionListener;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fréquentation des attractions à partir des dernières positions connues.
+ * <ul>
+ *   <li>pour le rayon de référence ({@code tourguide.crowd.radius-miles}), un compteur par
+ *       attraction est tenu à jour à chaque changement de position : lire le classement ne
+ *       parcourt aucun utilisateur ;</li>
+ *   <li>pour un autre rayon, le décompte s'appuie sur la grille de {@link UserIndex} : les
+ *       cellules entièrement couvertes comptent pour leur population, seules les cellules
+ *       en bordure sont examinées.</li>
+ * </ul>
+ * Les distances utilisent le même calcul de grand cercle que {@link RewardsService#getDistance}.
+ * Les zones sont construites au premier usage : le démarrage ne charge pas les attractions.
+ * Après un rechargement du catalogue, elles sont reconstruites et les positions connues recomptées.
+ */
+@Slf4j
+@Service
+public class CrowdDensityService implements UserPositionListener, AttractionCatalogListener {
+
+    private static final double CELL_SIZE_DEGREES = 1.0;
+
+    // Zones du rayon de référence et leurs compteurs, construits ensemble
+    private record CrowdZones(AttractionZoneIndex index, AtomicIntegerArray usersByZone,
+                              Map<String, Integer> zoneByAttractionName) {
+    }
+
+    private final UserIndex userIndex;
+    private final AttractionCatalog attractionCatalog;
+    private final double crowdRadiusMiles;
+    private volatile CrowdZones zones;
+
+    public CrowdDensityService(UserIndex userIndex, AttractionCatalog attractionCatalog,
+                               @Value("${tourguide.crowd.radius-miles:10}") double crowdRadiusMiles) {
+        this.userIndex = userIndex;
+        this.attractionCatalog = attractionCatalog;
+        this.crowdRadiusMiles = crowdRadiusMiles;
+    }
+
+    private CrowdZones zones() {
+        CrowdZones current = zones;
+        if (current == null) {
+            synchronized (this) {
+                current = zones;
+                if (current == null) {
+                    current = buildZones(attractionCatalog.snapshot());
+                    zones = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private CrowdZones buildZones(AttractionSnapshot snapshot) {
+        AttractionZoneIndex index = AttractionZoneIndex.build(snapshot.asList(), crowdRadiusMiles,
+                new GeoGrid(CELL_SIZE_DEGREES));
+        Map<String, Integer> byName = new HashMap<>();
+        for (int zone = 0; zone < index.size(); zone++) {
+            byName.putIfAbsent(index.attraction(zone).attractionName, zone);
+        }
+        return new CrowdZones(index, new AtomicIntegerArray(index.size()), byName);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        // Les positions déjà connues sont rejouées à l'enregistrement
+        userIndex.addPositionListener(this);
+        attractionCatalog.addListener(this);
+        log.debug("Fréquentation des attractions suivie dans un rayon de {} milles", crowdRadiusMiles);
+    }
+
+    @Override
+    public void positionChanged(User user, Location previous, Location current) {
+        CrowdZones crowd = zones();
+        if (previous != null) {
+            crowd.index().forEachZoneIndexContaining(previous, crowd.usersByZone()::decrementAndGet);
+        }
+        if (current != null) {
+            crowd.index().forEachZoneIndexContaining(current, crowd.usersByZone()::incrementAndGet);
+        }
+    }
+
+    // Nouvelles zones, compteurs recalculés à partir des positions connues
+    @Override
+    public void catalogChanged(AttractionSnapshot previous, AttractionSnapshot current) {
+        userIndex.replayPositions(this, () -> {
+            synchronized (this) {
+                zones = buildZones(current);
+            }
+        });
+    }
+
+    @Override
+    public void positionsCleared() {
+        CrowdZones crowd = zones;
+        if (crowd == null) {
+            return;
+        }
+        for (int zone = 0; zone < crowd.usersByZone().length(); zone++) {
+            crowd.usersByZone().set(zone, 0);
+        }
+    }
+
+    public double getCrowdRadiusMiles() {
+        return crowdRadiusMiles;
+    }
+
+    // Attractions les plus fréquentées dans le rayon de référence, par ordre décroissant
+    public List<AttractionCrowdDto> getMostCrowdedAttractions(int limit) {
+        CrowdZones crowd = zones();
+        AtomicIntegerArray usersByZone = crowd.usersByZone();
+        List<AttractionCrowdDto> crowds = new ArrayList<>(usersByZone.length());
+        for (int zone = 0; zone < usersByZone.length(); zone++) {
+            crowds.add(toDto(crowd.index().attraction(zone), crowdRadiusMiles, usersByZone.get(zone)));
+        }
+        return crowds.stream()
+                .sorted(Comparator.comparingInt(AttractionCrowdDto::users).reversed())
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+
+    /**
+     * Nombre d'utilisateurs à moins de {@code radiusMiles} de l'attraction.
+     *
+     * @return vide si l'attraction est inconnue
+     */
+    public Optional<AttractionCrowdDto> getCrowdNear(String attractionName, double radiusMiles) {
+        CrowdZones crowd = zones();
+        Integer zone = crowd.zoneByAttractionName().get(attractionName);
+        if (zone == null) {
+            return Optional.empty();
+        }
+        Attraction attraction = crowd.index().attraction(zone);
+        int users = radiusMiles == crowdRadiusMiles
+                ? crowd.usersByZone().get(zone)
+                : userIndex.countUsersWithin(attraction, radiusMiles);
+        return Optional.of(toDto(attraction, radiusMiles, users));
+    }
+
+    private static AttractionCrowdDto toDto(Attraction attraction, double radiusMiles, int users) {
+        return new AttractionCrowdDto(attraction.attractionName, attraction.latitude, attraction.longitude,
+                radiusMiles, users);
+    }
+}
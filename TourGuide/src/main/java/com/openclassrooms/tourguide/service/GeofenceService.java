@@ -0,0 +1,84 @@
+package com.openclassrooms.tourguide.service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.AttractionSnapshot;
+import com.openclassrooms.tourguide.geo.AttractionZoneIndex;
+import com.openclassrooms.tourguide.geo.GeoGrid;
+
+import gpsUtil.location.Attraction;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moteur de géorepérage des zones de récompense.
+ * Les zones (cercle de rayon {@code proximityBuffer} autour de chaque attraction) sont
+ * précalculées sur une grille de cellules d'un degré ; une position n'est comparée qu'aux
+ * zones de sa cellule. Un utilisateur éloigné de toute attraction ne coûte qu'une lecture.
+ */
+@Slf4j
+@Service
+public class GeofenceService {
+
+    // Cellules d'un degré (~69 milles en latitude): quelques zones candidates au plus par cellule
+    private static final double CELL_SIZE_DEGREES = 1.0;
+
+    private static final int MAX_CACHED_RADII = 8;
+
+    private final AttractionCatalog attractionCatalog;
+    private final GeoGrid grid = new GeoGrid(CELL_SIZE_DEGREES);
+
+    // Un index par rayon utilisé (récompenses, approche des zones pour le Tracker...),
+    // rattaché à la version du catalogue dont il est issu: un rechargement les invalide tous
+    private record ZoneCache(AttractionSnapshot snapshot, ConcurrentMap<Double, AttractionZoneIndex> byRadius) {
+    }
+
+    private record LastZones(AttractionSnapshot snapshot, AttractionZoneIndex zones) {
+    }
+
+    private volatile ZoneCache zoneCache;
+    private volatile LastZones lastZones;
+
+    public GeofenceService(AttractionCatalog attractionCatalog) {
+        this.attractionCatalog = attractionCatalog;
+    }
+
+    // Version courante du catalogue (identifiants stables entre deux calculs)
+    public List<Attraction> getAttractions() {
+        return attractionCatalog.getAttractions();
+    }
+
+    // Zones de récompense pour le rayon donné, construites une seule fois par rayon et par version du catalogue
+    public AttractionZoneIndex rewardZones(double radiusMiles) {
+        AttractionSnapshot snapshot = attractionCatalog.snapshot();
+        // Chemin rapide sans boxing: le rayon des récompenses change rarement
+        LastZones last = lastZones;
+        if (last != null && last.snapshot() == snapshot && last.zones().radiusMiles() == radiusMiles) {
+            return last.zones();
+        }
+        ZoneCache cache = zoneCache;
+        if (cache == null || cache.snapshot() != snapshot) {
+            cache = new ZoneCache(snapshot, new ConcurrentHashMap<>());
+            zoneCache = cache;
+        }
+        ConcurrentMap<Double, AttractionZoneIndex> zonesByRadius = cache.byRadius();
+        AttractionZoneIndex zones = zonesByRadius.get(radiusMiles);
+        if (zones == null) {
+            if (zonesByRadius.size() >= MAX_CACHED_RADII) {
+                zonesByRadius.clear(); // rayons ajustés à la volée: on ne garde que les plus récents
+            }
+            zones = zonesByRadius.computeIfAbsent(radiusMiles, r -> {
+                AttractionZoneIndex built = AttractionZoneIndex.build(snapshot.asList(), r, grid);
+                log.debug("Zones recalculées: {} attractions, rayon {} milles (catalogue v{})",
+                        built.size(), r, snapshot.version());
+                return built;
+            });
+        }
+        lastZones = new LastZones(snapshot, zones);
+        return zones;
+    }
+}
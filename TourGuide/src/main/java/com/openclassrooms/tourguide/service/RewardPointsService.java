@@ -5,6 +5,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import rewardCentral.RewardCentral;
 import gpsUtil.location.Attraction;
+import com.openclassrooms.tourguide.resilience.DependencyGuards;
 import com.openclassrooms.tourguide.user.User;
 
 @RequiredArgsConstructor
@@ -12,6 +13,7 @@ import com.openclassrooms.tourguide.user.User;
 public class RewardPointsService {
 
     private final RewardCentral rewardCentral;
+    private final DependencyGuards guards;
 
 
     
@@ -25,18 +27,23 @@ public class RewardPointsService {
     // - Le calcul de distance est un petit calcul CPU local (trigonométrie), très rapide.
     // - L'appel à RewardCentral, lui, simule un appel externe lent (sleep aléatoire jusqu’à ~1 seconde),
     //   donc il bloque un thread, a une latence variable et coûte bien plus cher.
-    // - Conséquence : on met en cache le résultat par duo (attractionId-userId) pour éviter
-    //   de payer cette latence à chaque fois. Avec sync=true, un seul thread calcule une clé manquante
+    // - Conséquence : on met en cache le résultat par duo (utilisateur, attraction) pour éviter
+    //   de payer cette latence à chaque fois. La clé (handle de l'utilisateur, attractionId) vient de
+    //   RewardPointsKeyGenerator : ni SpEL ni chaînes construites à chaque appel.
+    // - Avec sync=true, un seul thread calcule une clé manquante
     //   pendant que les autres attendent le résultat (évite l’« effet troupeau »).
+    // - L'appel passe par la protection "rewards" (délai, cloison, disjoncteur, requête doublée) :
+    //   en cas d'échec l'exception remonte, rien n'est mis en cache et la paire sera redemandée.
 
 
     @Cacheable(
         cacheNames = "rewardPoints",
-        key = "#attraction.attractionId.toString() +'-'+#user.userId.toString()",
+        keyGenerator = "rewardPointsKeyGenerator",
         sync = true,
         cacheManager = "cacheManager"
     )
     public int getRewardPoints(Attraction attraction, User user) {
-        return rewardCentral.getAttractionRewardPoints(attraction.attractionId, user.getUserId());
+        return guards.rewards().call(
+                () -> rewardCentral.getAttractionRewardPoints(attraction.attractionId, user.getUserId()));
     }
 }
\ No newline at end of file
@@ -3,26 +3,36 @@ package com.openclassrooms.tourguide.service;
 import java.util.*;
 
 
+import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
-import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
 import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
-import rewardCentral.RewardCentral;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.diagnostics.TrackingDiagnostics;
+import com.openclassrooms.tourguide.geo.AttractionZoneIndex;
+import com.openclassrooms.tourguide.geo.GeoGrid;
+import com.openclassrooms.tourguide.notification.UserEventHub;
+import com.openclassrooms.tourguide.resilience.DependencyGuards;
+import com.openclassrooms.tourguide.resilience.DependencyUnavailableException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 // Ajout pour l'exécution asynchrone
+import java.time.Duration;
 import java.util.concurrent.*;
 
+@Slf4j
 @Service
 public class RewardsService {
-    // Facteur de conversion milles nautiques -> milles terrestres
-    private static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
-
     // Rayon de proximité par défaut (en miles) pour l’attribution des récompenses
     private static final int DEFAULT_PROXIMITY_BUFFER = 10;
 
@@ -31,47 +41,111 @@ public class RewardsService {
 
     // Ajuste dynamiquement le rayon de proximité utilisé pour attribuer les récompenses
     // proximity in miles (modifiable dynamiquement via les setters)
+    @Getter
     @Setter
     private int proximityBuffer = DEFAULT_PROXIMITY_BUFFER;
 
-    // Dépendances externes (GPS et calculateur de points)
-    private final GpsUtil gpsUtil;
-    private final RewardCentral rewardsCentral;
-    @Autowired
-    private RewardPointsService rewardPointsService;
+    private final GeofenceService geofenceService;
+    private final AttractionCatalog attractionCatalog;
+    // Points de récompense (cache devant RewardCentral, protégé par guards.rewards())
+    private final RewardPointsService rewardPointsService;
+    private final DependencyGuards guards;
+    private final UserEventHub userEventHub;
+    private final TrackingDiagnostics diagnostics;
+
+    // Délais max des traitements exposés en réactif (au-delà: repli)
+    private final Duration rewardPointsTimeout;
+    private final Duration attractionsTimeout;
+
+    public RewardsService(GeofenceService geofenceService, AttractionCatalog attractionCatalog,
+                          RewardPointsService rewardPointsService, DependencyGuards guards,
+                          UserEventHub userEventHub,
+                          TrackingDiagnostics diagnostics,
+                          @Value("${tourguide.reactive.rewards.timeout:2s}") Duration rewardPointsTimeout,
+                          @Value("${tourguide.reactive.gps.timeout:2s}") Duration attractionsTimeout) {
+        this.geofenceService = geofenceService;
+        this.attractionCatalog = attractionCatalog;
+        this.rewardPointsService = rewardPointsService;
+        this.guards = guards;
+        this.userEventHub = userEventHub;
+        this.diagnostics = diagnostics;
+        this.rewardPointsTimeout = rewardPointsTimeout;
+        this.attractionsTimeout = attractionsTimeout;
+    }
+
+    /**
+     * Attribue les récompenses des visites ajoutées depuis le dernier calcul pour cet utilisateur
+     * (curseur {@link User#getRewardCursor()}) : l'historique déjà examiné n'est pas relu.
+     *
+     * @return nombre de récompenses reportées faute de réponse de RewardCentral (0 si tout est attribué)
+     */
+    public int calculateRewards(User user) {
+        return evaluateVisits(user, false);
+    }
 
-    public RewardsService(GpsUtil gpsUtil, RewardCentral rewardCentral) {
-        this.gpsUtil = gpsUtil;
-        this.rewardsCentral = rewardCentral;
-        // rewardPointsService injecté par Spring via @Autowired
+    /**
+     * Réexamine tout l'historique des visites (job de recalcul) : rattrape les récompenses manquées
+     * quel que soit le curseur, puis le replace en fin d'historique.
+     *
+     * @return nombre de récompenses reportées faute de réponse de RewardCentral (0 si tout est attribué)
+     */
+    public int recalculateRewards(User user) {
+        return evaluateVisits(user, true);
     }
 
-    public void calculateRewards(User user) {
-        // Copies pour éviter ConcurrentModificationException
-        List<VisitedLocation> userLocations = new ArrayList<>(user.getVisitedLocations());
-        // Utilise la liste d’attractions directement depuis gpsUtil
-        List<Attraction> attractions = new ArrayList<>(gpsUtil.getAttractions());
+    private int evaluateVisits(User user, boolean fullScan) {
+        // Zones précalculées autour des attractions pour le rayon courant
+        AttractionZoneIndex rewardZones = geofenceService.rewardZones(proximityBuffer);
+        User.RewardCursor cursor = user.getRewardCursor();
+        // Nouveau catalogue ou nouveau rayon: les visites déjà examinées doivent l'être à nouveau
+        int from = fullScan || cursor.zones() != rewardZones ? 0 : cursor.evaluatedVisits();
+        List<VisitedLocation> visits = user.getVisitedLocations();
+        int to = visits.size();
+        if (from >= to) {
+            return 0;
+        }
+        // Copie des seules nouvelles visites, pour éviter ConcurrentModificationException
+        List<VisitedLocation> newVisits = new ArrayList<>(visits.subList(from, to));
 
         Set<String> rewardedAttractionNames = new HashSet<>();
         user.getUserRewards().forEach(r -> rewardedAttractionNames.add(r.attraction.attractionName));
-
-        // Inversion: on boucle d'abord sur les attractions, puis sur les visites
-        for (Attraction attraction : attractions) {
-            if (rewardedAttractionNames.contains(attraction.attractionName)) {
-                continue; // déjà récompensée par le fast path ou précédemment
-            }
-            for (VisitedLocation visitedLocation : userLocations) {
-                if (isNearAttraction(visitedLocation, attraction)) {
-                    user.addUserReward(new UserReward(
-                            visitedLocation,
-                            attraction,
-                            getRewardPoints(attraction, user)
-                    ));
-                    rewardedAttractionNames.add(attraction.attractionName);
-                    break; // passe à l’attraction suivante
+        // [0]: récompenses reportées; [1]: première visite concernée, d'où reprendra le prochain calcul
+        int[] deferred = {0, to};
+
+        // Chaque visite n'est comparée qu'aux zones de sa cellule; l'entrée dans une zone
+        // non encore récompensée attribue la récompense (première visite dans l'ordre)
+        for (int i = 0; i < newVisits.size() && rewardedAttractionNames.size() < rewardZones.size(); i++) {
+            VisitedLocation visitedLocation = newVisits.get(i);
+            int index = from + i;
+            rewardZones.forEachZoneContaining(visitedLocation.location, attraction -> {
+                if (rewardedAttractionNames.add(attraction.attractionName)
+                        && !grantReward(user, visitedLocation, attraction)) {
+                    deferred[0]++;
+                    deferred[1] = Math.min(deferred[1], index);
                 }
-            }
+            });
         }
+        // Un calcul concurrent a déjà déplacé le curseur: on le laisse faire foi
+        user.advanceRewardCursor(cursor, new User.RewardCursor(rewardZones, deferred[1]));
+        return deferred[0];
+    }
+
+    // RewardCentral indisponible: pas de récompense à 0 point, false (à recalculer)
+    private boolean grantReward(User user, VisitedLocation visitedLocation, Attraction attraction) {
+        int points;
+        try {
+            points = getRewardPoints(attraction, user);
+        } catch (DependencyUnavailableException e) {
+            guards.rewards().recordFallback();
+            log.debug("Récompense {} reportée pour {}: {}", attraction.attractionName, user.getUserName(),
+                    e.getMessage());
+            return false;
+        }
+        UserReward reward = new UserReward(visitedLocation, attraction, points);
+        if (user.addUserReward(reward)) {
+            userEventHub.rewardGranted(user, reward);
+        }
+        return true;
     }
 
     // Indique si une localisation est dans la zone de proximité générique de l'attraction
@@ -80,37 +154,69 @@ public class RewardsService {
     }
 
     public List<Attraction> getClosestAttractions(Location from, int limit) {
-        // Tri lisible via Comparator.comparingDouble
-        return gpsUtil.getAttractions().stream()
-                .sorted(Comparator.comparingDouble(a -> getDistance(a, from)))
-                .limit(limit)
-                .toList();
+        // Catalogue partagé (identifiants stables): sélection partielle, sans copie ni tri de la liste
+        return attractionCatalog.snapshot().nearest(from, limit);
     }
 
-    // Teste si la visite est suffisamment proche de l'attraction (utilise proximityBuffer courant)
-    private boolean isNearAttraction(VisitedLocation visitedLocation, Attraction attraction) {
-        return getDistance(attraction, visitedLocation.location) <= proximityBuffer;
+    // Délégation vers le service de points (cache); trace null si les diagnostics sont désactivés
+    public int getRewardPoints(Attraction attraction, User user) {
+        TrackingDiagnostics.RewardTrace trace = diagnostics.startReward(attraction, user);
+        int points = rewardPointsService.getRewardPoints(attraction, user);
+        if (trace != null) {
+            trace.completed(points);
+        }
+        return points;
     }
 
-    // Délégation vers le service de points (cache), avec fallback RewardCentral si non injecté
-    public int getRewardPoints(Attraction attraction, User user) {
-        if (rewardPointsService != null) {
-            return rewardPointsService.getRewardPoints(attraction, user);
+    // Points affichés: 0 si RewardCentral est indisponible (rien n'est mis en cache, nouvel essai au prochain appel)
+    public int getDisplayedRewardPoints(Attraction attraction, User user) {
+        try {
+            return getRewardPoints(attraction, user);
+        } catch (DependencyUnavailableException e) {
+            guards.rewards().recordFallback();
+            log.debug("Points {} indisponibles pour {}: {}", attraction.attractionName, user.getUserName(),
+                    e.getMessage());
+            return 0;
         }
-        return rewardsCentral.getAttractionRewardPoints(attraction.attractionId, user.getUserId());
     }
 
-    // Calcule la distance sphérique (grand cercle) entre deux localisations
-    public double getDistance(Location loc1, Location loc2) {
-        double lat1 = Math.toRadians(loc1.latitude);
-        double lon1 = Math.toRadians(loc1.longitude);
-        double lat2 = Math.toRadians(loc2.latitude);
-        double lon2 = Math.toRadians(loc2.longitude);
+    // --- Variantes non bloquantes ---
+    // Les appels RewardCentral eux-mêmes passent par la protection "rewards" (pool dédié, délai);
+    // ces traitements, qui les attendent ou ne font que calculer, restent sur boundedElastic():
+    // voir BlockingCallSchedulers.
 
-        double angle = Math.acos(Math.sin(lat1) * Math.sin(lat2)
-                + Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
+    // Points de récompense; 0 si RewardCentral ne répond pas dans le délai
+    public Mono<Integer> getRewardPointsReactive(Attraction attraction, User user) {
+        return Mono.fromCallable(() -> getDisplayedRewardPoints(attraction, user))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 
-        double nauticalMiles = 60 * Math.toDegrees(angle);
-        return STATUTE_MILES_PER_NAUTICAL_MILE * nauticalMiles;
+    // Calcul des récompenses; un dépassement du délai est journalisé et rattrapé au prochain cycle
+    public Mono<Void> calculateRewardsReactive(User user) {
+        return Mono.fromRunnable(() -> calculateRewards(user))
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(rewardPointsTimeout.multipliedBy(2))
+                .onErrorResume(TimeoutException.class, e -> {
+                    log.warn("Calcul des récompenses trop lent pour {}: reporté", user.getUserName());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // Délai dépassé: 503 (service momentanément indisponible) plutôt qu'une erreur 500
+    public Mono<List<Attraction>> getClosestAttractionsReactive(Location from, int limit) {
+        return Mono.fromCallable(() -> getClosestAttractions(from, limit))
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(attractionsTimeout)
+                .onErrorResume(TimeoutException.class, e -> {
+                    log.warn("Attractions proches non calculées dans le délai ({})", attractionsTimeout);
+                    return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Attractions proches indisponibles, réessayer plus tard", e));
+                });
+    }
+
+    // Calcule la distance sphérique (grand cercle) entre deux localisations
+    public double getDistance(Location loc1, Location loc2) {
+        return GeoGrid.distanceMiles(loc1.latitude, loc1.longitude, loc2.latitude, loc2.longitude);
     }
 }
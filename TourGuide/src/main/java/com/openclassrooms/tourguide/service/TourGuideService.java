@@ -1,13 +1,23 @@
 package com.openclassrooms.tourguide.service;
 
+import com.openclassrooms.tourguide.analytics.VisitAnalyticsStore;
+import com.openclassrooms.tourguide.batch.ChunkedForkJoinTask;
+import com.openclassrooms.tourguide.deals.TripDealRecommender;
+import com.openclassrooms.tourguide.diagnostics.Stage;
+import com.openclassrooms.tourguide.diagnostics.TrackingDiagnostics;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.notification.UserEventHub;
+import com.openclassrooms.tourguide.resilience.DependencyGuards;
+import com.openclassrooms.tourguide.resilience.DependencyUnavailableException;
 
 import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserIndex;
 import com.openclassrooms.tourguide.user.UserReward;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import org.springframework.stereotype.Service;
 import gpsUtil.GpsUtil;
@@ -15,8 +25,9 @@ import gpsUtil.location.Attraction;
 import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
 import tripPricer.Provider;
-import tripPricer.TripPricer;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 // Ajout pour le parallélisme contrôlé
 
 
@@ -26,12 +37,26 @@ public class TourGuideService {
 
     private final GpsUtil gpsUtil;
     private final RewardsService rewardsService;
-    private final TripPricer tripPricer = new TripPricer();
+    private final UserIndex userIndex;
+    private final UserEventHub userEventHub;
+    private final TripDealRecommender tripDealRecommender;
+    private final TrackingDiagnostics diagnostics;
+    private final DependencyGuards guards;
+    private final VisitAnalyticsStore visitAnalytics;
     // boolean testMode = true; // SUPPRIMÉ
 
-    public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService) {
+    public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService, UserIndex userIndex,
+                            UserEventHub userEventHub, TripDealRecommender tripDealRecommender,
+                            TrackingDiagnostics diagnostics, DependencyGuards guards,
+                            VisitAnalyticsStore visitAnalytics) {
         this.gpsUtil = gpsUtil;
         this.rewardsService = rewardsService;
+        this.userIndex = userIndex;
+        this.userEventHub = userEventHub;
+        this.tripDealRecommender = tripDealRecommender;
+        this.diagnostics = diagnostics;
+        this.guards = guards;
+        this.visitAnalytics = visitAnalytics;
 
         Locale.setDefault(Locale.US);
 
@@ -48,6 +73,11 @@ public class TourGuideService {
         return user.getUserRewards();
     }
 
+    // Récompenses ajoutées après la version 'since', jusqu'à la version 'until' (voir User#getRewardsVersion)
+    public List<UserReward> getUserRewardsSince(User user, long since, long until) {
+        return user.getUserRewardsBetween(since, until);
+    }
+
     public VisitedLocation getUserLocation(User user) {
         return user.getVisitedLocations().isEmpty()
                 ? trackUserLocation(user)
@@ -55,51 +85,111 @@ public class TourGuideService {
     }
 
     public User getUser(String userName) {
-        return internalUserMap.get(userName);
+        return userIndex.getByName(userName);
     }
 
+    // Accès par handle (voir User#getHandle), sans hachage: réservé aux traitements internes
+    public User getUser(int userHandle) {
+        return userIndex.getByHandle(userHandle);
+    }
+
+    public Optional<User> findUserById(UUID userId) {
+        return userIndex.findById(userId);
+    }
+
+    public Optional<User> findUserByEmail(String emailAddress) {
+        return userIndex.findByEmail(emailAddress);
+    }
+
+    // Utilisateurs dont la dernière position connue est dans le rayon donné
+    public List<User> getUsersWithin(Location center, double radiusMiles) {
+        return userIndex.getUsersWithin(center, radiusMiles);
+    }
+
+    // Dernière position indexée (sans parcourir l'historique des visites)
+    public Optional<Location> getLastKnownLocation(User user) {
+        return userIndex.lastKnownLocation(user);
+    }
+
+    public void changeEmailAddress(User user, String emailAddress) {
+        userIndex.changeEmail(user, emailAddress);
+    }
+
+    // Copie de l'annuaire: à réserver aux traitements qui ont besoin d'un accès indexé stable
     public List<User> getAllUsers() {
-        return new ArrayList<>(internalUserMap.values());
+        return new ArrayList<>(userIndex.users());
+    }
+
+    // Vue non modifiable, sans copie
+    public Collection<User> getUsers() {
+        return userIndex.users();
+    }
+
+    public void forEachUser(Consumer<User> action) {
+        userIndex.forEachUser(action);
+    }
+
+    public int getUserCount() {
+        return userIndex.size();
     }
 
     // Exécute le calcul des récompenses pour tous les utilisateurs en parallèle
     // 'parallelism' contrôle le nombre maximum de threads utilisés.
+    // Les utilisateurs sont découpés en tranches réparties par vol de tâches (fork/join);
+    // pour un recalcul piloté (pause, reprise, progression), voir RewardsRecomputeJob.
     public void calculateAllRewardsInParallel(int parallelism) {
         List<User> users = getAllUsers();
+        int chunks = (users.size() + REWARDS_CHUNK_SIZE - 1) / REWARDS_CHUNK_SIZE;
 
-
-       ExecutorService es = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
         try {
-           CompletableFuture.allOf(
-                    users.stream()
-                            .map(u -> CompletableFuture.runAsync(() -> rewardsService.calculateRewards(u), es))
-                            .toArray(CompletableFuture[]::new)
-            ).join();
+            pool.invoke(new ChunkedForkJoinTask(0, chunks, chunk -> {
+                int to = Math.min(users.size(), (chunk + 1) * REWARDS_CHUNK_SIZE);
+                for (int i = chunk * REWARDS_CHUNK_SIZE; i < to; i++) {
+                    rewardsService.calculateRewards(users.get(i));
+                }
+            }, () -> false));
         } finally {
-            es.shutdown();
+            pool.shutdown();
         }
     }
 
 
     public void addUser(User user) {
-        if (!internalUserMap.containsKey(user.getUserName())) {
-            internalUserMap.put(user.getUserName(), user);
-        }
+        userIndex.add(user);
     }
 
+    // Offres classées selon les préférences et l'historique (voir TripDealRecommender)
     public List<Provider> getTripDeals(User user) {
-        int cumulativeRewardPoints = user.getUserRewards().stream().mapToInt(UserReward::getRewardPoints).sum();
-        List<Provider> providers = tripPricer.getPrice(TRIP_PRICER_API_KEY, user.getUserId(),
-                user.getUserPreferences().getNumberOfAdults(), user.getUserPreferences().getNumberOfChildren(),
-                user.getUserPreferences().getTripDuration(), cumulativeRewardPoints);
+        List<Provider> providers = tripDealRecommender.recommend(user);
         user.setTripDeals(providers);
         return providers;
     }
 
+    // Repli sur la dernière position connue si GpsUtil est indisponible (rien de nouveau à indexer ni à récompenser)
     public VisitedLocation trackUserLocation(User user) {
-        VisitedLocation visitedLocation = gpsUtil.getUserLocation(user.getUserId());
+        VisitedLocation visitedLocation;
+        try {
+            visitedLocation = guards.gps().call(() -> gpsUtil.getUserLocation(user.getUserId()));
+        } catch (DependencyUnavailableException e) {
+            if (user.getVisitedLocations().isEmpty()) {
+                throw e;
+            }
+            guards.gps().recordFallback();
+            log.debug("GpsUtil indisponible pour {} ({}): repli sur la dernière position connue",
+                    user.getUserName(), e.getMessage());
+            return user.getLastVisitedLocation();
+        } finally {
+            diagnostics.stageCompleted(Stage.GPS);
+        }
         user.addToVisitedLocations(visitedLocation);
+        userIndex.updatePosition(user, visitedLocation.location);
+        visitAnalytics.recordVisit(user, visitedLocation);
+        diagnostics.stageCompleted(Stage.POSITION_INDEX);
+        userEventHub.locationUpdated(user, visitedLocation);
+        diagnostics.stageCompleted(Stage.EVENTS);
         rewardsService.calculateRewards(user);
+        diagnostics.stageCompleted(Stage.REWARDS);
         return visitedLocation;
     }
 
@@ -108,24 +198,59 @@ public class TourGuideService {
         return rewardsService.getClosestAttractions(visitedLocation.location, 5);
     }
 
+    // --- Variantes non bloquantes: les appels externes passent par les protections de DependencyGuards ---
+
+    public Mono<VisitedLocation> getUserLocationReactive(User user) {
+        return user.getVisitedLocations().isEmpty()
+                ? trackUserLocationReactive(user)
+                : Mono.just(user.getLastVisitedLocation());
+    }
+
+    // Repli sur la dernière position connue si GpsUtil est indisponible
+    public Mono<VisitedLocation> trackUserLocationReactive(User user) {
+        return guards.gps().mono(() -> gpsUtil.getUserLocation(user.getUserId()))
+                .flatMap(visitedLocation -> {
+                    user.addToVisitedLocations(visitedLocation);
+                    userIndex.updatePosition(user, visitedLocation.location);
+                    visitAnalytics.recordVisit(user, visitedLocation);
+                    userEventHub.locationUpdated(user, visitedLocation);
+                    return rewardsService.calculateRewardsReactive(user).thenReturn(visitedLocation);
+                })
+                .onErrorResume(DependencyUnavailableException.class, e -> {
+                    if (user.getVisitedLocations().isEmpty()) {
+                        return Mono.error(e);
+                    }
+                    guards.gps().recordFallback();
+                    log.debug("GpsUtil indisponible pour {} ({}): repli sur la dernière position connue",
+                            user.getUserName(), e.getMessage());
+                    return Mono.just(user.getLastVisitedLocation());
+                });
+    }
+
+    // Budget de latence et repli sur les offres précédentes: voir TripDealRecommender.
+    // Attend des appels TripPricer protégés: reste hors de leur pool dédié (voir BlockingCallSchedulers)
+    public Mono<List<Provider>> getTripDealsReactive(User user) {
+        return Mono.fromCallable(() -> getTripDeals(user))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
    
 
     /**********************************************************************************
           * Méthodes ci-dessous : pour les tests internes
      *
      **********************************************************************************/
-    private static final String TRIP_PRICER_API_KEY = "test-server-api-key";
+    // Petites tranches: les appels RewardCentral sont lents, le vol de tâches équilibre mieux
+    private static final int REWARDS_CHUNK_SIZE = 4;
     private static final double LONGITUDE_MIN = -180.0;
     private static final double LONGITUDE_MAX = 180.0;
     private static final double LATITUDE_MIN = -85.05112878;
     private static final double LATITUDE_MAX = 85.05112878;
     private final Random random = new Random();
 
-    // Pour les tests, les utilisateurs internes sont stockés en mémoire
-    private final ConcurrentMap<String, User> internalUserMap = new ConcurrentHashMap<>();
-
+    // Pour les tests, les utilisateurs internes sont stockés en mémoire (voir UserIndex)
     public void clearAllUsers() {
-        internalUserMap.clear();
+        userIndex.clear();
     }
 
     // Pour permettre l'appel depuis l'initialiseur @Profile("test")
@@ -137,7 +262,7 @@ public class TourGuideService {
             User user = new User(UUID.randomUUID(), userName, phone, email);
             generateUserLocationHistory(user);
 
-            internalUserMap.put(userName, user);
+            userIndex.add(user);
         });
         log.debug("Création de {} utilisateurs de test internes.", InternalTestHelper.getInternalUserNumber());
     }
@@ -0,0 +1,81 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.service.GeofenceService;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Calcule l'intervalle avant la prochaine interrogation GPS d'un utilisateur.
+ * <ul>
+ *   <li>proche d'une zone de récompense : intervalle court, pour ne pas manquer l'entrée dans la zone ;</li>
+ *   <li>immobile (déplacement récent négligeable) : intervalle long ;</li>
+ *   <li>sinon : intervalle nominal.</li>
+ * </ul>
+ */
+@Component
+public class AdaptivePollingPolicy {
+
+    public enum Tier { NEAR_ZONE, MOVING, STATIONARY }
+
+    private final GeofenceService geofenceService;
+    private final RewardsService rewardsService;
+    private final Duration nearZoneInterval;
+    private final Duration movingInterval;
+    private final Duration stationaryInterval;
+    private final double stationaryMiles;
+    private final double approachMarginMiles;
+
+    public AdaptivePollingPolicy(GeofenceService geofenceService, RewardsService rewardsService,
+                                 @Value("${tourguide.tracker.near-zone-interval:1m}") Duration nearZoneInterval,
+                                 @Value("${tourguide.tracker.moving-interval:5m}") Duration movingInterval,
+                                 @Value("${tourguide.tracker.stationary-interval:30m}") Duration stationaryInterval,
+                                 @Value("${tourguide.tracker.stationary-miles:0.1}") double stationaryMiles,
+                                 @Value("${tourguide.tracker.approach-margin-miles:15}") double approachMarginMiles) {
+        this.geofenceService = geofenceService;
+        this.rewardsService = rewardsService;
+        this.nearZoneInterval = nearZoneInterval;
+        this.movingInterval = movingInterval;
+        this.stationaryInterval = stationaryInterval;
+        this.stationaryMiles = stationaryMiles;
+        this.approachMarginMiles = approachMarginMiles;
+    }
+
+    public Tier tierOf(User user) {
+        List<VisitedLocation> visits = user.getVisitedLocations();
+        int count = visits.size();
+        if (count == 0) {
+            return Tier.MOVING;
+        }
+        VisitedLocation last = visits.get(count - 1);
+        // Zone d'approche: rayon de récompense élargi d'une marge, testé via la grille du géorepérage
+        double approachMiles = (double) rewardsService.getProximityBuffer() + approachMarginMiles;
+        if (geofenceService.rewardZones(approachMiles).anyZoneContains(last.location)) {
+            return Tier.NEAR_ZONE;
+        }
+        if (count >= 2 && rewardsService.getDistance(visits.get(count - 2).location, last.location) < stationaryMiles) {
+            return Tier.STATIONARY;
+        }
+        return Tier.MOVING;
+    }
+
+    public Duration intervalOf(Tier tier) {
+        return switch (tier) {
+            case NEAR_ZONE -> nearZoneInterval;
+            case MOVING -> movingInterval;
+            case STATIONARY -> stationaryInterval;
+        };
+    }
+
+    // Intervalle nominal, utilisé aussi comme période de réconciliation des utilisateurs suivis
+    public Duration movingInterval() {
+        return movingInterval;
+    }
+}
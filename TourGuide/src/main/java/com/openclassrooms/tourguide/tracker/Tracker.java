@@ -1,34 +1,53 @@
 package com.openclassrooms.tourguide.tracker;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 import org.apache.commons.lang3.time.StopWatch;
 
+import com.openclassrooms.tourguide.diagnostics.TrackingDiagnostics;
 import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.HandleTable;
 import com.openclassrooms.tourguide.user.User;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 
+/**
+ * Suivi GPS des utilisateurs avec une cadence adaptée à chacun.
+ * Chaque utilisateur a une échéance dans une file de priorité ; la boucle de répartition
+ * (pas de {@value #DISPATCH_TICK_SECONDS} s) confie les utilisateurs échus au pool de travail,
+ * puis chaque suivi replanifie son utilisateur selon {@link AdaptivePollingPolicy}.
+ * {@link #run()} reste disponible pour forcer un cycle complet sur tous les utilisateurs.
+ */
 @Slf4j
-@RequiredArgsConstructor
 @Component
 public class Tracker implements Runnable {
 
-    private static final long TRACKING_POLLING_INTERVAL_SECONDS = TimeUnit.MINUTES.toSeconds(5);
+    // Granularité des échéances: un utilisateur est suivi au plus tard un pas après son échéance
+    private static final long DISPATCH_TICK_SECONDS = 5;
 
-    // Scheduler pour la périodicité (1 thread suffit)
+    // Scheduler pour la boucle de répartition (1 thread suffit)
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
 
-    // Pool multi-threads pour paralléliser les utilisateurs pendant un cycle
+    // Pool multi-threads pour paralléliser les utilisateurs
     private final ExecutorService workerPool = Executors.newFixedThreadPool(
             Math.max(1, Runtime.getRuntime().availableProcessors()),
             r -> {
@@ -38,19 +57,63 @@ public class Tracker implements Runnable {
                 return t;
             });
 
+    // Prochaines interrogations, triées par échéance (accès sous verrou de la file)
+    private final PriorityQueue<PollEntry> pollQueue =
+            new PriorityQueue<>(Comparator.comparingLong(PollEntry::dueAtNanos));
+
+    // Utilisateurs présents dans la file ou en cours de suivi, par handle
+    private final HandleTable<User> scheduledUsers = new HandleTable<>();
+
+    private final Map<AdaptivePollingPolicy.Tier, Counter> pollCounters = new EnumMap<>(AdaptivePollingPolicy.Tier.class);
+
+    private volatile long nextReconciliationNanos;
+
     private final TourGuideService tourGuideService;
+    private final AdaptivePollingPolicy pollingPolicy;
+    private final TrackingDiagnostics diagnostics;
+    private final Duration initialDelay;
+    // Horloge des échéances (System.nanoTime, remplaçable dans les tests)
+    private final LongSupplier nanoClock;
+
+    private record PollEntry(long dueAtNanos, int userHandle) {
+    }
+
+    @Autowired
+    public Tracker(TourGuideService tourGuideService, AdaptivePollingPolicy pollingPolicy, MeterRegistry meterRegistry,
+                   TrackingDiagnostics diagnostics,
+                   @Value("${tourguide.tracker.initial-delay:0s}") Duration initialDelay) {
+        this(tourGuideService, pollingPolicy, meterRegistry, diagnostics, initialDelay, System::nanoTime);
+    }
+
+    Tracker(TourGuideService tourGuideService, AdaptivePollingPolicy pollingPolicy, MeterRegistry meterRegistry,
+            TrackingDiagnostics diagnostics, Duration initialDelay, LongSupplier nanoClock) {
+        this.tourGuideService = tourGuideService;
+        this.pollingPolicy = pollingPolicy;
+        this.diagnostics = diagnostics;
+        this.initialDelay = initialDelay;
+        this.nanoClock = nanoClock;
+        for (AdaptivePollingPolicy.Tier tier : AdaptivePollingPolicy.Tier.values()) {
+            pollCounters.put(tier, Counter.builder("tourguide.tracker.gps.polls")
+                    .description("Interrogations GPS du Tracker, par palier de cadence retenu ensuite")
+                    .tag("tier", tier.name())
+                    .register(meterRegistry));
+        }
+        meterRegistry.gauge("tourguide.tracker.scheduled.users", scheduledUsers, HandleTable::size);
+        nextReconciliationNanos = nanoClock.getAsLong();
+    }
 
     @PostConstruct
     public void start() {
+        // Premier cycle différé (démarrage rapide): le CPU reste à l'initialisation du contexte
         scheduler.scheduleWithFixedDelay(
-                this,
-                0,
-                TRACKING_POLLING_INTERVAL_SECONDS,
-                TimeUnit.SECONDS
+                this::dispatchDueUsers,
+                initialDelay.toMillis(),
+                TimeUnit.SECONDS.toMillis(DISPATCH_TICK_SECONDS),
+                TimeUnit.MILLISECONDS
         );
     }
-    
 
+    // Cycle complet forcé: suit tous les utilisateurs en parallèle et attend la fin
     @Override
     public void run() {
         if (Thread.currentThread().isInterrupted()) {
@@ -58,14 +121,23 @@ public class Tracker implements Runnable {
             return;
         }
 
-        List<User> users = tourGuideService.getAllUsers();
+        // Vue vivante: copie figée pour que le décompte du cycle corresponde aux tâches soumises
+        List<User> users = List.copyOf(tourGuideService.getUsers());
         log.debug("Démarrage d’un cycle du Tracker. Suivi de {} utilisateurs.", users.size());
 
         StopWatch stopWatch = StopWatch.createStarted();
         try {
             // Soumission en parallèle, attente de fin du cycle
+            TrackingDiagnostics.Cycle cycle = diagnostics.startCycle(users.size());
             CompletableFuture<?>[] futures = users.stream()
-                    .map(u -> CompletableFuture.runAsync(() -> tourGuideService.trackUserLocation(u), workerPool))
+                    .map(u -> CompletableFuture.runAsync(() -> {
+                        diagnostics.startEvaluation(u.getUserName());
+                        try {
+                            tourGuideService.trackUserLocation(u);
+                        } finally {
+                            diagnostics.finishEvaluation(cycle);
+                        }
+                    }, workerPool))
                     .toArray(CompletableFuture[]::new);
             CompletableFuture.allOf(futures).join();
         } finally {
@@ -75,6 +147,73 @@ public class Tracker implements Runnable {
         }
     }
 
+    // Confie au pool de travail les utilisateurs dont l'échéance est atteinte
+    void dispatchDueUsers() {
+        try {
+            long now = nanoClock.getAsLong();
+            if (now - nextReconciliationNanos >= 0 || scheduledUsers.size() < tourGuideService.getUserCount()) {
+                reconcile(now);
+            }
+
+            List<PollEntry> due = new ArrayList<>();
+            synchronized (pollQueue) {
+                while (!pollQueue.isEmpty() && pollQueue.peek().dueAtNanos() - now <= 0) {
+                    due.add(pollQueue.poll());
+                }
+            }
+            if (!due.isEmpty()) {
+                log.debug("Tracker: {} utilisateurs à suivre sur {} planifiés", due.size(), scheduledUsers.size());
+            }
+            TrackingDiagnostics.Cycle cycle = diagnostics.startCycle(due.size());
+            due.forEach(entry -> workerPool.execute(() -> poll(entry.userHandle(), cycle)));
+        } catch (RuntimeException e) {
+            // Une exception non rattrapée arrêterait définitivement la tâche périodique
+            log.error("Erreur dans la boucle de répartition du Tracker", e);
+        }
+    }
+
+    // Planifie immédiatement les utilisateurs apparus depuis la dernière réconciliation
+    private void reconcile(long now) {
+        tourGuideService.forEachUser(user -> {
+            if (scheduledUsers.putIfAbsent(user.getHandle(), user) == null) {
+                enqueue(user.getHandle(), now);
+            }
+        });
+        nextReconciliationNanos = now + pollingPolicy.movingInterval().toNanos();
+    }
+
+    private void poll(int userHandle, TrackingDiagnostics.Cycle cycle) {
+        User user = tourGuideService.getUser(userHandle);
+        if (user == null) {
+            scheduledUsers.remove(userHandle); // utilisateur supprimé entre-temps
+            diagnostics.finishEvaluation(cycle);
+            return;
+        }
+        diagnostics.startEvaluation(user.getUserName());
+        try {
+            poll(user);
+        } finally {
+            diagnostics.finishEvaluation(cycle);
+        }
+    }
+
+    private void poll(User user) {
+        try {
+            tourGuideService.trackUserLocation(user);
+        } catch (RuntimeException e) {
+            log.warn("Échec du suivi de {}: nouvelle tentative à la prochaine échéance", user.getUserName(), e);
+        }
+        AdaptivePollingPolicy.Tier tier = pollingPolicy.tierOf(user);
+        enqueue(user.getHandle(), nanoClock.getAsLong() + pollingPolicy.intervalOf(tier).toNanos());
+        pollCounters.get(tier).increment(); // compté une fois replanifié
+    }
+
+    private void enqueue(int userHandle, long dueAtNanos) {
+        synchronized (pollQueue) {
+            pollQueue.add(new PollEntry(dueAtNanos, userHandle));
+        }
+    }
+
     @PreDestroy
     public void stopTracking() {
         log.debug("Arrêt du Tracker");
@@ -0,0 +1,154 @@
+package com.openclassrooms.tourguide.user;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * État par utilisateur indexé par son handle ({@link User#getHandle()}) : remplace une
+ * {@code Map<UUID, T>} ou {@code Map<String, T>} sur les chemins chauds. Une lecture est un accès
+ * tableau, sans hachage ni allocation.
+ * <p>
+ * Les cases sont regroupées en pages de 1024 allouées à la première écriture ; une page allouée
+ * n'est jamais remplacée, les écritures d'une case sont atomiques et les lectures sans verrou.
+ * Les valeurs {@code null} sont interdites : une case vide signifie « absent ».
+ */
+public final class HandleTable<T> {
+
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private volatile AtomicReferenceArray<T>[] pages = newPages(0);
+    private final AtomicInteger size = new AtomicInteger();
+
+    public T get(int handle) {
+        AtomicReferenceArray<T>[] current = pages;
+        int page = handle >>> PAGE_BITS;
+        if (handle < 0 || page >= current.length || current[page] == null) {
+            return null;
+        }
+        return current[page].get(handle & PAGE_MASK);
+    }
+
+    // Renvoie la valeur précédente
+    public T put(int handle, T value) {
+        T previous = page(handle).getAndSet(handle & PAGE_MASK, requireValue(value));
+        if (previous == null) {
+            size.incrementAndGet();
+        }
+        return previous;
+    }
+
+    // Renvoie la valeur déjà présente, null si la valeur donnée a été placée
+    public T putIfAbsent(int handle, T value) {
+        T previous = page(handle).compareAndExchange(handle & PAGE_MASK, null, requireValue(value));
+        if (previous == null) {
+            size.incrementAndGet();
+        }
+        return previous;
+    }
+
+    public T computeIfAbsent(int handle, IntFunction<? extends T> factory) {
+        T value = get(handle);
+        if (value != null) {
+            return value;
+        }
+        T created = factory.apply(handle);
+        T previous = putIfAbsent(handle, created);
+        return previous != null ? previous : created;
+    }
+
+    public T remove(int handle) {
+        AtomicReferenceArray<T> page = existingPage(handle);
+        T previous = page == null ? null : page.getAndSet(handle & PAGE_MASK, null);
+        if (previous != null) {
+            size.decrementAndGet();
+        }
+        return previous;
+    }
+
+    // Retire la case seulement si elle contient encore la valeur donnée
+    public boolean remove(int handle, T expected) {
+        AtomicReferenceArray<T> page = existingPage(handle);
+        if (page == null || expected == null || !page.compareAndSet(handle & PAGE_MASK, expected, null)) {
+            return false;
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    // Parcours par handle croissant; faiblement cohérent avec les écritures concurrentes
+    public void forEach(Consumer<? super T> action) {
+        for (AtomicReferenceArray<T> page : pages) {
+            if (page == null) {
+                continue;
+            }
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                T value = page.get(i);
+                if (value != null) {
+                    action.accept(value);
+                }
+            }
+        }
+    }
+
+    // Vide les cases en gardant les pages (les handles ne sont pas réattribués)
+    public void clear() {
+        for (AtomicReferenceArray<T> page : pages) {
+            if (page == null) {
+                continue;
+            }
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (page.getAndSet(i, null) != null) {
+                    size.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private AtomicReferenceArray<T> existingPage(int handle) {
+        AtomicReferenceArray<T>[] current = pages;
+        int page = handle >>> PAGE_BITS;
+        return handle < 0 || page >= current.length ? null : current[page];
+    }
+
+    private AtomicReferenceArray<T> page(int handle) {
+        if (handle < 0) {
+            throw new IllegalArgumentException("Handle d'utilisateur non attribué: " + handle);
+        }
+        AtomicReferenceArray<T> page = existingPage(handle);
+        return page != null ? page : allocate(handle >>> PAGE_BITS);
+    }
+
+    // Copie sur écriture du tableau des pages: la publication passe par le champ volatile
+    private synchronized AtomicReferenceArray<T> allocate(int page) {
+        AtomicReferenceArray<T>[] current = pages;
+        if (page < current.length && current[page] != null) {
+            return current[page];
+        }
+        int length = page < current.length ? current.length : Math.max(page + 1, current.length * 2);
+        AtomicReferenceArray<T>[] grown = Arrays.copyOf(current, length);
+        grown[page] = new AtomicReferenceArray<>(PAGE_SIZE);
+        pages = grown;
+        return grown[page];
+    }
+
+    private static <T> T requireValue(T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Valeur null interdite: utiliser remove");
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> AtomicReferenceArray<T>[] newPages(int length) {
+        return (AtomicReferenceArray<T>[]) new AtomicReferenceArray<?>[length];
+    }
+}
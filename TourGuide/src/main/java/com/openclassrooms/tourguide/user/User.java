@@ -4,8 +4,13 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
 
 import gpsUtil.location.VisitedLocation;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -32,6 +37,14 @@ public class User {
 
     private final String userName;
 
+    /**
+     * -- GETTER --
+     *  Handle interne : entier dense attribué par {@link UserIndex#add(User)}, clé des tables
+     *  {@link HandleTable} et du cache des points. {@code -1} tant que l'utilisateur n'est pas indexé ;
+     *  conservé ensuite, y compris après un retrait (un handle n'est jamais réattribué).
+     */
+    private volatile int handle = -1;
+
 
     // Coordonnées
     @Setter
@@ -67,10 +80,11 @@ public class User {
     /**
      * -- GETTER --
      *  Retourne la liste des récompenses.
-     *  <p>La liste retournée est modifiable.</p>
+     *  <p>Liste copiée à l'écriture : parcours sûr pendant les ajouts concurrents (suivi, recalcul,
+     *  calcul parallèle). Ajouter uniquement par {@link #addUserReward(UserReward)}.</p>
 
      */
-    private List<UserReward> userRewards = new ArrayList<>();
+    private final List<UserReward> userRewards = new CopyOnWriteArrayList<>();
     /**
      * -- GETTER --
      *  Retourne les préférences de l'utilisateur.
@@ -94,6 +108,23 @@ public class User {
     @Setter
     private List<Provider> tripDeals = new ArrayList<>();
 
+    // Versions incrémentées à chaque modification de l'historique / des récompenses (ETag, lectures delta)
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong locationVersion = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong rewardsVersion = new AtomicLong();
+
+    /**
+     * Avancement du calcul incrémental des récompenses : les {@code evaluatedVisits} premières visites
+     * ont été examinées avec le jeu de zones {@code zones} (un autre jeu de zones impose de tout relire).
+     */
+    public record RewardCursor(Object zones, int evaluatedVisits) {
+        public static final RewardCursor START = new RewardCursor(null, 0);
+    }
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<RewardCursor> rewardCursor = new AtomicReference<>(RewardCursor.START);
+
     /**
      * Crée un utilisateur avec son identifiant, son nom et ses coordonnées.
      *
@@ -111,6 +142,14 @@ public class User {
     
     // --- Identité ---
 
+    // Attribué une fois pour toutes, à la première indexation
+    synchronized int assignHandle(IntSupplier nextHandle) {
+        if (handle < 0) {
+            handle = nextHandle.getAsInt();
+        }
+        return handle;
+    }
+
     // --- Coordonnées ---
 
     // --- Localisation ---
@@ -124,6 +163,7 @@ public class User {
      */
     public void addToVisitedLocations(VisitedLocation visitedLocation) {
         visitedLocations.add(visitedLocation);
+        locationVersion.incrementAndGet();
     }
 
     /**
@@ -131,6 +171,28 @@ public class User {
      */
     public void clearVisitedLocations() {
         visitedLocations.clear();
+        locationVersion.incrementAndGet();
+        rewardCursor.set(RewardCursor.START);
+    }
+
+    public RewardCursor getRewardCursor() {
+        return rewardCursor.get();
+    }
+
+    /**
+     * Avance le curseur du calcul des récompenses s'il n'a pas bougé depuis sa lecture.
+     *
+     * @return {@code false} si un calcul concurrent l'a déjà déplacé
+     */
+    public boolean advanceRewardCursor(RewardCursor expected, RewardCursor next) {
+        return rewardCursor.compareAndSet(expected, next);
+    }
+
+    /**
+     * Version de l'historique des visites, incrémentée à chaque modification.
+     */
+    public long getLocationVersion() {
+        return locationVersion.get();
     }
     
     /**
@@ -148,14 +210,41 @@ public class User {
     /**
      * Ajoute une récompense utilisateur si aucune récompense n'existe déjà
      * pour la même attraction (comparaison par nom d'attraction).
+     * Vérification, ajout et version sont atomiques : deux calculs concurrents n'insèrent pas
+     * deux fois la même attraction.
      *
      * @param userReward la récompense à ajouter
+     * @return {@code true} si la récompense a été ajoutée
      */
-    public void addUserReward(UserReward userReward) {
+    public synchronized boolean addUserReward(UserReward userReward) {
         if (userRewards.stream()
                 .noneMatch(r -> r.attraction.attractionName.equals(userReward.attraction.attractionName))) {
             userRewards.add(userReward);
+            rewardsVersion.incrementAndGet();
+            return true;
         }
+        return false;
+    }
+
+    /**
+     * Version des récompenses : nombre de récompenses ajoutées. Les récompenses n'étant
+     * jamais retirées, la version {@code n} correspond aux {@code n} premières de la liste.
+     */
+    public long getRewardsVersion() {
+        return rewardsVersion.get();
+    }
+
+    /**
+     * Récompenses ajoutées entre deux versions.
+     *
+     * @param since version déjà connue du client (0 pour toutes)
+     * @param until version lue par l'appelant, renvoyée au client comme prochaine valeur de {@code since}
+     * @return une copie des récompenses de l'intervalle, éventuellement vide
+     */
+    public synchronized List<UserReward> getUserRewardsBetween(long since, long until) {
+        int to = (int) Math.max(0, Math.min(until, userRewards.size()));
+        int from = (int) Math.max(0, Math.min(since, to));
+        return new ArrayList<>(userRewards.subList(from, to));
     }
 
     // --- Préférences ---
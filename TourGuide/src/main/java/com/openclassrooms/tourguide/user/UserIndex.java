@@ -0,0 +1,384 @@
+package com.openclassrooms.tourguide.user;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.geo.GeoGrid;
+
+import gpsUtil.location.Location;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Annuaire des utilisateurs en mémoire et ses index secondaires.
+ * <ul>
+ *   <li>index principal par nom d'utilisateur ;</li>
+ *   <li>index par identifiant ({@link UUID}) et par adresse e-mail (insensible à la casse) ;</li>
+ *   <li>table par handle ({@link User#getHandle()}, attribué à l'ajout) : utilisateur et dernière
+ *       position, lus par un simple accès tableau sur les chemins chauds (suivi, recherches par rayon) ;
+ *       nom, identifiant et e-mail ne servent qu'aux points d'entrée de l'API ;</li>
+ *   <li>index spatial des dernières positions connues : une grille de cellules de 1°,
+ *       chaque cellule contenant l'ensemble des utilisateurs qui s'y trouvent.</li>
+ * </ul>
+ * Tous les index sont des structures concurrentes : lectures sans verrou, mises à jour
+ * d'un même utilisateur sérialisées par le moniteur de sa case.
+ * {@link #users()} et {@link #forEachUser(Consumer)} parcourent l'annuaire sans le copier.
+ * Les changements de position sont diffusés aux {@link UserPositionListener} enregistrés.
+ */
+@Slf4j
+@Component
+public class UserIndex {
+
+    private static final double CELL_SIZE_DEGREES = 1.0;
+
+    // Au-delà, une recherche par rayon parcourt toutes les positions plutôt que les cellules
+    private static final int MAX_CELLS_PER_QUERY = 4096;
+
+    // Handles uniques dans la JVM (clé du cache des points), denses avec un seul annuaire
+    private static final AtomicInteger NEXT_HANDLE = new AtomicInteger();
+
+    // Dernière position indexée d'un utilisateur
+    private record Position(int cell, Location location) {
+    }
+
+    // Case d'un utilisateur indexé; position modifiée sous le moniteur de la case
+    private static final class Slot {
+        final User user;
+        volatile Position position;
+        boolean removed;
+
+        Slot(User user) {
+            this.user = user;
+        }
+    }
+
+    private final GeoGrid grid = new GeoGrid(CELL_SIZE_DEGREES);
+    private final ConcurrentMap<String, User> byName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, User> byId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, User> byEmail = new ConcurrentHashMap<>();
+    private final HandleTable<Slot> slots = new HandleTable<>();
+    // Cellules allouées à la première position qui y tombe
+    private final AtomicReferenceArray<Set<User>> usersByCell = new AtomicReferenceArray<>(grid.cellCount());
+    private final Collection<User> usersView = Collections.unmodifiableCollection(byName.values());
+
+    private final List<UserPositionListener> positionListeners = new CopyOnWriteArrayList<>();
+    // Partagé par les mises à jour de position, exclusif pour enregistrer un abonné ou tout vider:
+    // un abonné reçoit l'état existant puis chaque changement, sans trou ni doublon
+    private final ReadWriteLock positionsLock = new ReentrantReadWriteLock();
+
+    /**
+     * Ajoute un utilisateur à tous les index (position comprise s'il a déjà des visites).
+     *
+     * @return {@code false} si un utilisateur du même nom existe déjà
+     */
+    public boolean add(User user) {
+        // Handle et case d'abord: un utilisateur visible par nom (parcours du Tracker, etc.) a toujours les siens
+        int handle = user.assignHandle(NEXT_HANDLE::getAndIncrement);
+        Slot slot = new Slot(user);
+        if (slots.putIfAbsent(handle, slot) != null) {
+            return false; // déjà indexé
+        }
+        if (byName.putIfAbsent(user.getUserName(), user) != null) {
+            slots.remove(handle, slot); // nom déjà pris; le handle reste attribué à cet utilisateur
+            return false;
+        }
+        byId.put(user.getUserId(), user);
+        indexEmail(user, user.getEmailAddress());
+        if (!user.getVisitedLocations().isEmpty()) {
+            updatePosition(user, user.getLastVisitedLocation().location);
+        }
+        return true;
+    }
+
+    public void remove(User user) {
+        if (!byName.remove(user.getUserName(), user)) {
+            return;
+        }
+        byId.remove(user.getUserId(), user);
+        String email = emailKey(user.getEmailAddress());
+        if (email != null) {
+            byEmail.remove(email, user);
+        }
+        positionsLock.readLock().lock();
+        try {
+            Slot slot = slotOf(user);
+            if (slot == null) {
+                return;
+            }
+            synchronized (slot) {
+                slot.removed = true;
+                Position position = slot.position;
+                if (position != null) {
+                    cell(position.cell()).remove(user);
+                    positionListeners.forEach(listener -> listener.positionChanged(user, position.location(), null));
+                    slot.position = null;
+                }
+            }
+            slots.remove(user.getHandle(), slot);
+        } finally {
+            positionsLock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        positionsLock.writeLock().lock();
+        try {
+            byName.clear();
+            byId.clear();
+            byEmail.clear();
+            slots.clear();
+            for (int i = 0; i < usersByCell.length(); i++) {
+                usersByCell.set(i, null);
+            }
+            positionListeners.forEach(UserPositionListener::positionsCleared);
+        } finally {
+            positionsLock.writeLock().unlock();
+        }
+    }
+
+    // Enregistre un abonné et lui rejoue d'abord les positions déjà connues
+    public void addPositionListener(UserPositionListener listener) {
+        positionsLock.writeLock().lock();
+        try {
+            replayTo(listener);
+            positionListeners.add(listener);
+        } finally {
+            positionsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rejoue les positions connues à un abonné qui vient de remettre ses agrégats à zéro
+     * ({@code reset}, par exemple après un rechargement du catalogue des attractions).
+     * Aucune mise à jour de position ne s'intercale entre la remise à zéro et la fin du rejeu.
+     */
+    public void replayPositions(UserPositionListener listener, Runnable reset) {
+        positionsLock.writeLock().lock();
+        try {
+            reset.run();
+            replayTo(listener);
+        } finally {
+            positionsLock.writeLock().unlock();
+        }
+    }
+
+    public User getByName(String userName) {
+        return byName.get(userName);
+    }
+
+    // Utilisateur indexé sous ce handle, null s'il a été retiré
+    public User getByHandle(int handle) {
+        Slot slot = slots.get(handle);
+        return slot == null ? null : slot.user;
+    }
+
+    public Optional<User> findById(UUID userId) {
+        return Optional.ofNullable(byId.get(userId));
+    }
+
+    public Optional<User> findByEmail(String emailAddress) {
+        String email = emailKey(emailAddress);
+        return email == null ? Optional.empty() : Optional.ofNullable(byEmail.get(email));
+    }
+
+    public int size() {
+        return byName.size();
+    }
+
+    // Vue non modifiable et sans copie; reflète les ajouts et suppressions concurrents
+    public Collection<User> users() {
+        return usersView;
+    }
+
+    public void forEachUser(Consumer<User> action) {
+        byName.values().forEach(action);
+    }
+
+    // Change l'adresse e-mail et réindexe l'utilisateur
+    public void changeEmail(User user, String emailAddress) {
+        String previous = emailKey(user.getEmailAddress());
+        user.setEmailAddress(emailAddress);
+        if (byName.get(user.getUserName()) != user) {
+            return; // utilisateur non indexé
+        }
+        if (previous != null) {
+            byEmail.remove(previous, user);
+        }
+        indexEmail(user, emailAddress);
+    }
+
+    /**
+     * Enregistre la dernière position connue. Sans effet pour un utilisateur absent de l'annuaire.
+     */
+    public void updatePosition(User user, Location location) {
+        int cell = grid.cellOf(location.latitude, location.longitude);
+        positionsLock.readLock().lock();
+        try {
+            Slot slot = slotOf(user);
+            if (slot == null) {
+                return;
+            }
+            synchronized (slot) {
+                if (slot.removed) {
+                    return;
+                }
+                Position previous = slot.position;
+                if (previous == null || previous.cell() != cell) {
+                    if (previous != null) {
+                        cell(previous.cell()).remove(user);
+                    }
+                    cell(cell).add(user);
+                }
+                Location before = previous == null ? null : previous.location();
+                positionListeners.forEach(listener -> listener.positionChanged(user, before, location));
+                slot.position = new Position(cell, location);
+            }
+        } finally {
+            positionsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Parcourt les utilisateurs dont la dernière position connue est à moins de
+     * {@code radiusMiles} de la position donnée. Seules les cellules couvertes par le cercle
+     * sont visitées.
+     */
+    public void forEachUserWithin(Location center, double radiusMiles, Consumer<User> action) {
+        int[] cells = grid.cellsWithin(center.latitude, center.longitude, radiusMiles, MAX_CELLS_PER_QUERY);
+        if (cells == null) {
+            slots.forEach(slot -> {
+                Position position = slot.position;
+                if (position != null && isWithin(position, center, radiusMiles)) {
+                    action.accept(slot.user);
+                }
+            });
+            return;
+        }
+        for (int cell : cells) {
+            Set<User> users = usersByCell.get(cell);
+            if (users == null) {
+                continue;
+            }
+            for (User user : users) {
+                Position position = positionOf(user);
+                if (position != null && position.cell() == cell && isWithin(position, center, radiusMiles)) {
+                    action.accept(user);
+                }
+            }
+        }
+    }
+
+    /**
+     * Nombre d'utilisateurs dans le rayon, sans parcourir les cellules entièrement couvertes :
+     * leur population est lue directement. Seules les cellules en bordure du cercle sont
+     * examinées utilisateur par utilisateur.
+     */
+    public int countUsersWithin(Location center, double radiusMiles) {
+        int[] cells = grid.cellsWithin(center.latitude, center.longitude, radiusMiles, MAX_CELLS_PER_QUERY);
+        if (cells == null) {
+            int[] count = {0};
+            slots.forEach(slot -> {
+                Position position = slot.position;
+                if (position != null && isWithin(position, center, radiusMiles)) {
+                    count[0]++;
+                }
+            });
+            return count[0];
+        }
+        int count = 0;
+        for (int cell : cells) {
+            Set<User> users = usersByCell.get(cell);
+            if (users == null || users.isEmpty()) {
+                continue;
+            }
+            if (grid.cellWithin(cell, center.latitude, center.longitude, radiusMiles)) {
+                count += users.size();
+                continue;
+            }
+            for (User user : users) {
+                Position position = positionOf(user);
+                if (position != null && position.cell() == cell && isWithin(position, center, radiusMiles)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public List<User> getUsersWithin(Location center, double radiusMiles) {
+        List<User> users = new ArrayList<>();
+        forEachUserWithin(center, radiusMiles, users::add);
+        return users;
+    }
+
+    // Dernière position indexée, sans lire l'historique (non synchronisé) de l'utilisateur
+    public Optional<Location> lastKnownLocation(User user) {
+        Position position = positionOf(user);
+        return position == null ? Optional.empty() : Optional.of(position.location());
+    }
+
+    // Case de cet utilisateur (et non d'un homonyme ou d'un utilisateur retiré)
+    private Slot slotOf(User user) {
+        Slot slot = slots.get(user.getHandle());
+        return slot != null && slot.user == user ? slot : null;
+    }
+
+    private Position positionOf(User user) {
+        Slot slot = slotOf(user);
+        return slot == null ? null : slot.position;
+    }
+
+    private void replayTo(UserPositionListener listener) {
+        slots.forEach(slot -> {
+            Position position = slot.position;
+            if (position != null) {
+                listener.positionChanged(slot.user, null, position.location());
+            }
+        });
+    }
+
+    private static boolean isWithin(Position position, Location center, double radiusMiles) {
+        Location location = position.location();
+        return GeoGrid.distanceMiles(location.latitude, location.longitude, center.latitude, center.longitude) <= radiusMiles;
+    }
+
+    private void indexEmail(User user, String emailAddress) {
+        String email = emailKey(emailAddress);
+        if (email == null) {
+            return;
+        }
+        User existing = byEmail.putIfAbsent(email, user);
+        if (existing != null && existing != user) {
+            log.warn("Adresse e-mail {} déjà utilisée par {}: {} non indexé par e-mail",
+                    emailAddress, existing.getUserName(), user.getUserName());
+        }
+    }
+
+    private Set<User> cell(int cell) {
+        Set<User> users = usersByCell.get(cell);
+        if (users == null) {
+            usersByCell.compareAndSet(cell, null, ConcurrentHashMap.newKeySet());
+            users = usersByCell.get(cell);
+        }
+        return users;
+    }
+
+    private static String emailKey(String emailAddress) {
+        return emailAddress == null || emailAddress.isBlank() ? null : emailAddress.trim().toLowerCase(Locale.ROOT);
+    }
+}
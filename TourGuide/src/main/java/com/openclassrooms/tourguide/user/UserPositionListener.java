@@ -0,0 +1,21 @@
+package com.openclassrooms.tourguide.user;
+
+import gpsUtil.location.Location;
+
+/**
+ * Abonné aux changements de dernière position connue tenus par {@link UserIndex}.
+ * Les appels concernant un même utilisateur sont sérialisés ; ils doivent rester brefs
+ * (mise à jour d'agrégats en mémoire), car ils s'exécutent sur le thread du suivi GPS.
+ */
+public interface UserPositionListener {
+
+    /**
+     * @param previous position précédente, {@code null} à la première position
+     * @param current  nouvelle position, {@code null} quand l'utilisateur est retiré de l'annuaire
+     */
+    void positionChanged(User user, Location previous, Location current);
+
+    // L'annuaire a été vidé: les agrégats doivent être remis à zéro
+    default void positionsCleared() {
+    }
+}
@@ -0,0 +1,240 @@
+package com.openclassrooms.tourguide.warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.config.UserDataHealthIndicator;
+import com.openclassrooms.tourguide.service.RewardPointsService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserIndex;
+import com.openclassrooms.tourguide.user.UserPositionListener;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Préchauffage du cache {@code rewardPoints}.
+ * <ul>
+ *   <li>chaque utilisateur qui reçoit sa première position (utilisateurs existants au démarrage,
+ *       puis utilisateurs créés ensuite) planifie ses {@code attractions-per-user} attractions
+ *       les plus proches ;</li>
+ *   <li>les tâches sont traitées par rang de proximité : l'attraction la plus proche de chaque
+ *       utilisateur d'abord, puis la deuxième, etc. ;</li>
+ *   <li>les appels à RewardCentral passent par le proxy {@link RewardPointsService} (le résultat
+ *       remplit le cache) et sont limités à {@code rate-per-second} pour laisser la place au
+ *       trafic réel ;</li>
+ *   <li>le préchauffage démarre une fois l'application prête ; {@link #isWarm()} indique si la part
+ *       {@code ready-threshold} des tâches planifiées au démarrage est traitée.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class RewardPointsWarmer implements UserPositionListener {
+
+    // Tâche de préchauffage: une paire (attraction, utilisateur)
+    private record WarmupTask(int rank, long sequence, boolean startup, Attraction attraction, User user) {
+    }
+
+    private final UserIndex userIndex;
+    private final AttractionCatalog attractionCatalog;
+    private final RewardPointsService rewardPointsService;
+    private final UserDataHealthIndicator userDataHealth;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int attractionsPerUser;
+    private final int threads;
+    private final long permitIntervalNanos;
+    private final int maxPendingTasks;
+    private final double readyThreshold;
+    private final Duration readyTimeout;
+
+    private final PriorityBlockingQueue<WarmupTask> queue = new PriorityBlockingQueue<>(1024,
+            Comparator.comparingInt(WarmupTask::rank).thenComparingLong(WarmupTask::sequence));
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong nextPermitNanos = new AtomicLong(System.nanoTime());
+    private final AtomicInteger startupPlanned = new AtomicInteger();
+    private final AtomicInteger startupDone = new AtomicInteger();
+    private final AtomicLong warmed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean started;
+    private volatile long startedAtNanos;
+    private ExecutorService workers;
+
+    public RewardPointsWarmer(UserIndex userIndex, AttractionCatalog attractionCatalog,
+                              RewardPointsService rewardPointsService, UserDataHealthIndicator userDataHealth,
+                              MeterRegistry meterRegistry,
+                              @Value("${tourguide.warmup.enabled:true}") boolean enabled,
+                              @Value("${tourguide.warmup.attractions-per-user:5}") int attractionsPerUser,
+                              @Value("${tourguide.warmup.threads:8}") int threads,
+                              @Value("${tourguide.warmup.rate-per-second:200}") double ratePerSecond,
+                              @Value("${tourguide.warmup.max-pending-tasks:50000}") int maxPendingTasks,
+                              @Value("${tourguide.warmup.ready-threshold:0.8}") double readyThreshold,
+                              @Value("${tourguide.warmup.ready-timeout:5m}") Duration readyTimeout) {
+        this.userIndex = userIndex;
+        this.attractionCatalog = attractionCatalog;
+        this.rewardPointsService = rewardPointsService;
+        this.userDataHealth = userDataHealth;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.attractionsPerUser = attractionsPerUser;
+        this.threads = Math.max(1, threads);
+        this.permitIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.maxPendingTasks = maxPendingTasks;
+        this.readyThreshold = readyThreshold;
+        this.readyTimeout = readyTimeout;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (!enabled) {
+            log.info("Préchauffage du cache rewardPoints désactivé");
+            return;
+        }
+        Gauge.builder("tourguide.rewards.warmup.pending", queue, PriorityBlockingQueue::size)
+                .description("Paires (attraction, utilisateur) en attente de préchauffage")
+                .register(meterRegistry);
+        Gauge.builder("tourguide.rewards.warmup.warmed", warmed, AtomicLong::get)
+                .description("Points de récompense préchauffés depuis le démarrage")
+                .register(meterRegistry);
+        // Les positions déjà connues sont rejouées: elles forment le plan de démarrage
+        userIndex.addPositionListener(this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || started) {
+            return;
+        }
+        started = true;
+        startedAtNanos = System.nanoTime();
+        log.info("Préchauffage du cache rewardPoints: {} paires planifiées au démarrage, {} threads",
+                startupPlanned.get(), threads);
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "rewards-warmup-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::drain);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    // Première position d'un utilisateur: planifie ses attractions les plus proches
+    @Override
+    public void positionChanged(User user, Location previous, Location current) {
+        if (previous != null || current == null) {
+            return;
+        }
+        List<Attraction> nearest = attractionCatalog.snapshot().nearest(current, attractionsPerUser);
+        // Utilisateurs du chargement initial (même asynchrone): ils font partie du plan de démarrage
+        boolean startup = !started || !userDataHealth.isLoaded();
+        for (int rank = 0; rank < nearest.size(); rank++) {
+            if (queue.size() >= maxPendingTasks) {
+                return; // au-delà, le cache n'en garderait pas davantage: le trafic réel complétera
+            }
+            if (startup) {
+                startupPlanned.incrementAndGet();
+            }
+            queue.add(new WarmupTask(rank, sequence.incrementAndGet(), startup, nearest.get(rank), user));
+        }
+    }
+
+    @Override
+    public void positionsCleared() {
+        List<WarmupTask> dropped = new ArrayList<>();
+        queue.drainTo(dropped);
+        // Les tâches abandonnées ne comptent plus dans le plan de démarrage
+        startupPlanned.addAndGet(-(int) dropped.stream().filter(WarmupTask::startup).count());
+    }
+
+    /**
+     * Indique si le cache est assez chaud pour recevoir du trafic : seuil atteint sur le plan
+     * de démarrage, ou délai {@code ready-timeout} écoulé (le préchauffage continue alors en fond).
+     */
+    public boolean isWarm() {
+        if (!enabled) {
+            return true;
+        }
+        if (!started || !userDataHealth.isLoaded()) {
+            return false;
+        }
+        return startupDone.get() >= readyThreshold * startupPlanned.get()
+                || System.nanoTime() - startedAtNanos >= readyTimeout.toNanos();
+    }
+
+    public int getStartupPlanned() {
+        return startupPlanned.get();
+    }
+
+    public int getStartupDone() {
+        return startupDone.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WarmupTask task = queue.take();
+                awaitPermit();
+                warm(task);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void warm(WarmupTask task) {
+        try {
+            rewardPointsService.getRewardPoints(task.attraction(), task.user());
+            warmed.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.debug("Préchauffage impossible pour {} / {}: {}",
+                    task.attraction().attractionName, task.user().getUserName(), e.getMessage());
+        } finally {
+            if (task.startup() && startupDone.incrementAndGet() == startupPlanned.get()) {
+                log.info("Préchauffage du cache rewardPoints terminé en {} s ({} échecs)",
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAtNanos), failed.get());
+            }
+        }
+    }
+
+    // Espacement régulier des appels, partagé par tous les threads de préchauffage
+    private void awaitPermit() throws InterruptedException {
+        long now = System.nanoTime();
+        long slot = Math.max(now, nextPermitNanos.getAndUpdate(next -> Math.max(next, now) + permitIntervalNanos));
+        if (slot > now) {
+            TimeUnit.NANOSECONDS.sleep(slot - now);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.openclassrooms.tourguide.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * État du préchauffage du cache {@code rewardPoints}, inclus dans le groupe {@code readiness} :
+ * l'instance ne reçoit du trafic qu'une fois le seuil de préchauffage atteint.
+ */
+@Component
+@RequiredArgsConstructor
+public class RewardPointsWarmupHealthIndicator implements HealthIndicator {
+
+    private final RewardPointsWarmer warmer;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = warmer.isWarm() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("planned", warmer.getStartupPlanned())
+                .withDetail("done", warmer.getStartupDone())
+                .withDetail("failed", warmer.getFailed())
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.service.GeofenceService;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.tracker.AdaptivePollingPolicy;
+import com.openclassrooms.tourguide.tracker.AdaptivePollingPolicy.Tier;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+public class TestAdaptivePollingPolicy {
+
+    private final GpsUtil gpsUtil = new GpsUtil();
+    private final GeofenceService geofenceService = new GeofenceService(new AttractionCatalog(gpsUtil, null));
+    private final AdaptivePollingPolicy policy = new AdaptivePollingPolicy(geofenceService, rewardsService(),
+            Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(30), 0.1, 15);
+
+    @Test
+    public void userNearAttractionIsPolledOften() {
+        Attraction attraction = geofenceService.getAttractions().get(0);
+        User user = userAt(new Location(attraction.latitude + 0.2, attraction.longitude));
+
+        assertEquals(Tier.NEAR_ZONE, policy.tierOf(user));
+        assertEquals(Duration.ofMinutes(1), policy.intervalOf(Tier.NEAR_ZONE));
+    }
+
+    @Test
+    public void stationaryUserIsPolledRarely() {
+        User user = userAt(new Location(-60, 100), new Location(-60, 100));
+
+        assertEquals(Tier.STATIONARY, policy.tierOf(user));
+        assertTrue(policy.intervalOf(Tier.STATIONARY).compareTo(policy.intervalOf(Tier.MOVING)) > 0);
+    }
+
+    @Test
+    public void userRepeatingTheSamePositionIsAlwaysStationary() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            Location location = new Location(random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180);
+            User user = userAt(location, new Location(location.latitude, location.longitude));
+
+            // acos mal conditionné près de 1: moins d'un pied d'écart, jamais NaN
+            assertTrue(rewardsService().getDistance(location, location) < 0.001);
+            assertEquals(Tier.STATIONARY, policy.tierOf(user), () -> "position " + location.latitude + ", " + location.longitude);
+        }
+    }
+
+    @Test
+    public void movingUserKeepsNominalCadence() {
+        User user = userAt(new Location(-60, 100), new Location(-61, 101));
+
+        assertEquals(Tier.MOVING, policy.tierOf(user));
+    }
+
+    private User userAt(Location... locations) {
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        for (Location location : locations) {
+            user.addToVisitedLocations(new VisitedLocation(user.getUserId(), location, new Date()));
+        }
+        return user;
+    }
+
+    // La politique ne lit que le rayon de proximité et les distances
+    private static RewardsService rewardsService() {
+        RewardsService rewardsService = mock(RewardsService.class);
+        when(rewardsService.getProximityBuffer()).thenReturn(10);
+        when(rewardsService.getDistance(any(), any())).thenCallRealMethod();
+        return rewardsService;
+    }
+}
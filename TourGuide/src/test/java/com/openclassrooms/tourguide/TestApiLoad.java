@@ -0,0 +1,263 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+/**
+ * Test de charge HTTP : contrôleur, sérialisation JSON et modèle de threads compris.
+ * <ul>
+ *   <li>l'application démarre sur un port aléatoire ; GpsUtil, RewardCentral et TripPricer sont remplacés
+ *       par des bouchons à latence fixe, pour ne mesurer que TourGuide ;</li>
+ *   <li>modèle ouvert : les requêtes arrivent selon un processus de Poisson au débit demandé, qu'elles
+ *       aient reçu une réponse ou non ; la latence part de l'instant d'envoi prévu (pas d'omission
+ *       coordonnée si le générateur prend du retard) ;</li>
+ *   <li>un histogramme HdrHistogram par route ; percentiles affichés et distribution complète écrite dans
+ *       {@code target/loadtest/*.hgrm} ;</li>
+ *   <li>échec si le p99 ou le p99.9 d'une route dépasse son objectif, ou si le taux d'erreurs est trop élevé.</li>
+ * </ul>
+ * Exclu de {@code mvn test} ; lancement : {@code mvn -Ploadtest test}, paramètres {@code -Dloadtest.*}
+ * décrits dans le readme.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "management.server.port=0",
+        "logging.level.com.openclassrooms.tourguide=INFO",
+        "tourguide.warmup.enabled=false",
+        "tourguide.tracker.initial-delay=1h",
+        "tourguide.startup.internal-users=1000"
+})
+@ActiveProfiles("test")
+public class TestApiLoad {
+
+    private static final List<String> ROUTES = List.of("/getLocation", "/getNearbyAttractions", "/getRewards",
+            "/getTripDeals");
+
+    // Débit total (requêtes/s, toutes routes confondues), durées et objectifs de latence
+    private static final int RATE = Integer.getInteger("loadtest.rate", 80);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+    private static final double MAX_ERROR_RATIO = Double.parseDouble(System.getProperty("loadtest.max-error-ratio", "0.001"));
+
+    // Latence fixe des bouchons
+    private static final long GPS_LATENCY_MILLIS = 5;
+    private static final long REWARDS_LATENCY_MILLIS = 2;
+    private static final long PRICER_LATENCY_MILLIS = 10;
+
+    @TestConfiguration
+    static class StubbedDependencies {
+
+        @Bean
+        @Primary
+        GpsUtil stubGpsUtil() {
+            return new GpsUtil() {
+                @Override
+                public VisitedLocation getUserLocation(UUID userId) {
+                    pause(GPS_LATENCY_MILLIS);
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    return new VisitedLocation(userId,
+                            new Location(random.nextDouble(-85, 85), random.nextDouble(-180, 180)), new Date());
+                }
+            };
+        }
+
+        @Bean
+        @Primary
+        RewardCentral stubRewardCentral() {
+            return new RewardCentral() {
+                @Override
+                public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+                    pause(REWARDS_LATENCY_MILLIS);
+                    return 1 + Math.floorMod(attractionId.hashCode() ^ userId.hashCode(), 1000);
+                }
+            };
+        }
+
+        @Bean
+        @Primary
+        TripPricer stubTripPricer() {
+            return new TripPricer() {
+                @Override
+                public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children,
+                                               int nightsStay, int rewardsPoints) {
+                    pause(PRICER_LATENCY_MILLIS);
+                    List<Provider> providers = new ArrayList<>();
+                    for (int i = 0; i < 5; i++) {
+                        double price = (100 * adults + 50 * children) * nightsStay + 10 * i - rewardsPoints;
+                        providers.add(new Provider(attractionId, "provider" + i, Math.max(0, price)));
+                    }
+                    return providers;
+                }
+            };
+        }
+
+        private static void pause(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Objectifs par défaut ; surcharge par route : -Dloadtest.slo.getTripDeals.p99-millis=400
+    private record Slo(long p99Millis, long p999Millis) {
+
+        static Slo of(String route) {
+            String prefix = "loadtest.slo." + route.substring(1) + ".";
+            return new Slo(Long.getLong(prefix + "p99-millis", Long.getLong("loadtest.slo.p99-millis", 250)),
+                    Long.getLong(prefix + "p999-millis", Long.getLong("loadtest.slo.p999-millis", 1000)));
+        }
+    }
+
+    private static final class RouteStats {
+        final Histogram latencyMicros = new ConcurrentHistogram(3);
+        final AtomicLong errors = new AtomicLong();
+
+        void reset() {
+            latencyMicros.reset();
+            errors.set(0);
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TourGuideService tourGuideService;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    public void restApiMeetsLatencyObjectives() throws IOException {
+        List<String> userNames = tourGuideService.getAllUsers().stream().map(User::getUserName).toList();
+        assertFalse(userNames.isEmpty(), "aucun utilisateur interne");
+
+        Map<String, RouteStats> stats = new LinkedHashMap<>();
+        ROUTES.forEach(route -> stats.put(route, new RouteStats()));
+
+        // Chauffe (JIT, caches, pools de connexions) : mesures écartées
+        run(userNames, stats, WARMUP, new Random(1));
+        stats.values().forEach(RouteStats::reset);
+        run(userNames, stats, DURATION, new Random(2));
+
+        List<Executable> checks = new ArrayList<>();
+        Path reportDir = Files.createDirectories(Path.of("target", "loadtest"));
+        System.out.printf("%nCharge HTTP: %d req/s pendant %d s (modèle ouvert)%n", RATE, DURATION.toSeconds());
+        System.out.printf("%-22s %8s %7s %8s %8s %8s %8s %8s%n",
+                "route", "requêtes", "erreurs", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, RouteStats> entry : stats.entrySet()) {
+            String route = entry.getKey();
+            Histogram histogram = entry.getValue().latencyMicros;
+            long errors = entry.getValue().errors.get();
+            long total = histogram.getTotalCount() + errors;
+            System.out.printf("%-22s %8d %7d %8.1f %8.1f %8.1f %8.1f %8.1f%n", route, total, errors,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve(route.substring(1) + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+
+            Slo slo = Slo.of(route);
+            checks.add(() -> assertTrue(total > 0, route + ": aucune requête"));
+            checks.add(() -> assertTrue(errors <= MAX_ERROR_RATIO * total,
+                    route + ": " + errors + " erreurs sur " + total));
+            checks.add(() -> assertTrue(millis(histogram, 99) <= slo.p99Millis(),
+                    route + ": p99 " + millis(histogram, 99) + " ms > " + slo.p99Millis() + " ms"));
+            checks.add(() -> assertTrue(millis(histogram, 99.9) <= slo.p999Millis(),
+                    route + ": p99.9 " + millis(histogram, 99.9) + " ms > " + slo.p999Millis() + " ms"));
+        }
+        assertAll("objectifs de latence", checks);
+    }
+
+    // Arrivées de Poisson au débit RATE, routes et utilisateurs tirés au hasard; attend toutes les réponses
+    private void run(List<String> userNames, Map<String, RouteStats> stats, Duration duration, Random random) {
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long intended = start;
+        while (true) {
+            intended += (long) (-Math.log(1 - random.nextDouble()) / RATE * 1e9);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String route = ROUTES.get(random.nextInt(ROUTES.size()));
+            String userName = userNames.get(random.nextInt(userNames.size()));
+            inFlight.add(send(route, userName, intended, stats.get(route)));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private CompletableFuture<?> send(String route, String userName, long intendedNanos, RouteStats stats) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + route + "?userName=" + userName))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (failure != null || response.statusCode() != 200) {
+                        stats.errors.incrementAndGet();
+                    } else {
+                        stats.latencyMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos));
+                    }
+                    return null;
+                });
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,133 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.AttractionSnapshot;
+import com.openclassrooms.tourguide.geo.GeoGrid;
+import com.openclassrooms.tourguide.service.CrowdDensityService;
+import com.openclassrooms.tourguide.service.GeofenceService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserIndex;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+public class TestAttractionCatalog {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void nearestMatchesFullSort() {
+        AttractionSnapshot snapshot = new AttractionCatalog(new GpsUtil(), null).snapshot();
+        Random random = new Random(3);
+        for (int i = 0; i < 1_000; i++) {
+            Location location = new Location(random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180);
+            List<Attraction> expected = snapshot.asList().stream()
+                    .sorted(Comparator.comparingDouble(a ->
+                            GeoGrid.distanceMiles(a.latitude, a.longitude, location.latitude, location.longitude)))
+                    .limit(5)
+                    .toList();
+            assertEquals(expected, snapshot.nearest(location, 5));
+        }
+        assertEquals(snapshot.size(), snapshot.nearest(new Location(0, 0), Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void reloadFromGpsUtilKeepsAttractionIds() {
+        AttractionCatalog catalog = new AttractionCatalog(new GpsUtil(), null);
+        AttractionSnapshot first = catalog.snapshot();
+        AttractionSnapshot second = catalog.reload();
+
+        assertEquals(first.version() + 1, second.version());
+        assertSame(second, catalog.snapshot());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.asList().get(i).attractionId, second.asList().get(i).attractionId);
+        }
+    }
+
+    @Test
+    public void reloadFromFileRebuildsDependentIndexes() throws IOException {
+        Path file = directory.resolve("attractions.csv");
+        Files.writeString(file, """
+                # nom;ville;état;latitude;longitude
+                Disneyland;Anaheim;CA;33.817595;-117.922008
+                Jackson Hole;Jackson Hole;WY;43.582767;-110.821999
+                """);
+        AttractionCatalog catalog = new AttractionCatalog(new GpsUtil(), file.toString());
+        GeofenceService geofenceService = new GeofenceService(catalog);
+        UserIndex userIndex = new UserIndex();
+        CrowdDensityService crowd = new CrowdDensityService(userIndex, catalog, 10);
+        userIndex.addPositionListener(crowd);
+        catalog.addListener(crowd);
+
+        Location nearZion = new Location(37.29, -113.03);
+        for (int i = 0; i < 3; i++) {
+            User user = new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com");
+            user.addToVisitedLocations(new VisitedLocation(user.getUserId(), nearZion, new Date()));
+            userIndex.add(user);
+            userIndex.updatePosition(user, nearZion);
+        }
+        UUID disneylandId = named(catalog.snapshot(), "Disneyland").orElseThrow().attractionId;
+        assertTrue(crowd.getCrowdNear("Zion National Park", 10).isEmpty());
+        assertEquals(0, zonesEntered(geofenceService, nearZion));
+
+        Files.writeString(file, """
+                Disneyland;Anaheim;CA;33.817595;-117.922008
+                Zion National Park;Springdale;UT;37.298202;-113.026300
+                """);
+        AttractionSnapshot reloaded = catalog.reload();
+
+        assertEquals(2, reloaded.version());
+        assertEquals(disneylandId, named(reloaded, "Disneyland").orElseThrow().attractionId);
+        assertTrue(named(reloaded, "Jackson Hole").isEmpty());
+        assertEquals(1, zonesEntered(geofenceService, nearZion));
+        assertEquals(3, crowd.getCrowdNear("Zion National Park", 10).orElseThrow().users());
+    }
+
+    @Test
+    public void failedReloadKeepsCurrentVersion() throws IOException {
+        Path file = directory.resolve("attractions.csv");
+        Files.writeString(file, "Disneyland;Anaheim;CA;33.817595;-117.922008\n");
+        AttractionCatalog catalog = new AttractionCatalog(new GpsUtil(), file.toString());
+        AttractionSnapshot current = catalog.snapshot();
+
+        Files.writeString(file, "Disneyland;Anaheim;CA\n");
+        assertThrows(IllegalArgumentException.class, catalog::reload);
+        assertSame(current, catalog.snapshot());
+        assertNotEquals(0, current.size());
+    }
+
+    private static Optional<Attraction> named(AttractionSnapshot snapshot, String attractionName) {
+        return snapshot.asList().stream()
+                .filter(attraction -> attraction.attractionName.equals(attractionName))
+                .findFirst();
+    }
+
+    private static int zonesEntered(GeofenceService geofenceService, Location location) {
+        List<Attraction> entered = new ArrayList<>();
+        geofenceService.rewardZones(10).forEachZoneContaining(location, entered::add);
+        return entered.size();
+    }
+}
@@ -0,0 +1,154 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.openclassrooms.tourguide.controller.TourGuideController;
+import com.openclassrooms.tourguide.service.GeofenceService;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class TestConditionalReads {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TourGuideService tourGuideService;
+
+    @Autowired
+    private RewardsService rewardsService;
+
+    @Autowired
+    private GeofenceService geofenceService;
+
+    private User user;
+    private List<Attraction> attractions;
+
+    @BeforeEach
+    void resetState() {
+        tourGuideService.clearAllUsers();
+        rewardsService.setProximityBuffer(10);
+        attractions = geofenceService.getAttractions();
+        user = new User(UUID.randomUUID(), "etagUser", "000", "etag@tourGuide.com");
+        user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(0), new Date()));
+        tourGuideService.addUser(user);
+        rewardsService.calculateRewards(user);
+    }
+
+    @Test
+    public void rewardsAnswerNotModifiedUntilANewRewardIsGranted() throws Exception {
+        String etag = mockMvc.perform(get("/getRewards").param("userName", "etagUser"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TourGuideController.REWARDS_VERSION_HEADER, "1"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/getRewards").param("userName", "etagUser").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(1), new Date()));
+        rewardsService.calculateRewards(user);
+
+        String newEtag = mockMvc.perform(get("/getRewards").param("userName", "etagUser").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+
+        // Lecture delta: seule la récompense ajoutée depuis la version 1
+        mockMvc.perform(get("/getRewards").param("userName", "etagUser").param("since", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TourGuideController.REWARDS_VERSION_HEADER, "2"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].attraction.attractionName").value(attractions.get(1).attractionName));
+
+        mockMvc.perform(get("/getRewards").param("userName", "etagUser").param("since", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void concurrentGrantsKeepRewardsAndVersionInStep() throws Exception {
+        User target = new User(UUID.randomUUID(), "racer", "000", "racer@tourGuide.com");
+        VisitedLocation visit = new VisitedLocation(target.getUserId(), attractions.get(0), new Date());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> adds = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                Attraction attraction = attractions.get(i % 20);
+                adds.add(pool.submit(() -> target.addUserReward(new UserReward(visit, attraction, 1))));
+                adds.add(pool.submit(() -> target.getUserRewardsBetween(0, target.getRewardsVersion())));
+            }
+            for (Future<?> add : adds) {
+                add.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Une récompense par attraction, version égale au nombre de récompenses
+        assertEquals(20, target.getUserRewards().size());
+        assertEquals(20, target.getRewardsVersion());
+        assertEquals(20, target.getUserRewards().stream().map(reward -> reward.attraction.attractionName).distinct().count());
+    }
+
+    @Test
+    public void locationAnswersNotModifiedUntilANewVisit() throws Exception {
+        String etag = mockMvc.perform(get("/getLocation").param("userName", "etagUser"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/getLocation").param("userName", "etagUser").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(2), new Date()));
+
+        mockMvc.perform(get("/getLocation").param("userName", "etagUser").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.location.attractionName").value(attractions.get(2).attractionName));
+    }
+
+    @Test
+    public void locationTrackedOnFirstReadIsLabelledWithItsVersion() throws Exception {
+        User newcomer = new User(UUID.randomUUID(), "newcomer", "000", "newcomer@tourGuide.com");
+        tourGuideService.addUser(newcomer);
+
+        String etag = mockMvc.perform(get("/getLocation").param("userName", "newcomer"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals(1, newcomer.getLocationVersion());
+        mockMvc.perform(get("/getLocation").param("userName", "newcomer").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,114 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.dto.AttractionCrowdDto;
+import com.openclassrooms.tourguide.geo.GeoGrid;
+import com.openclassrooms.tourguide.service.CrowdDensityService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserIndex;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+public class TestCrowdDensityService {
+
+    private static final double CROWD_RADIUS = 10;
+
+    private final Random random = new Random(7);
+    private final UserIndex userIndex = new UserIndex();
+    private final AttractionCatalog attractionCatalog = new AttractionCatalog(new GpsUtil(), null);
+    private final List<Attraction> attractions = attractionCatalog.getAttractions();
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void populate() {
+        // Utilisateurs déjà positionnés avant l'abonnement: rejoués à l'enregistrement
+        for (int i = 0; i < 3000; i++) {
+            User user = new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com");
+            user.addToVisitedLocations(new VisitedLocation(user.getUserId(), randomLocationNearAttraction(), new Date()));
+            userIndex.add(user);
+            users.add(user);
+        }
+    }
+
+    @Test
+    public void countersFollowPositionChanges() {
+        CrowdDensityService crowd = subscribedService();
+
+        // Suivi: la moitié des utilisateurs se déplace, quelques-uns quittent l'annuaire
+        for (int i = 0; i < 1500; i++) {
+            User user = users.get(i);
+            Location moved = randomLocationNearAttraction();
+            user.addToVisitedLocations(new VisitedLocation(user.getUserId(), moved, new Date()));
+            userIndex.updatePosition(user, moved);
+        }
+        for (int i = 0; i < 100; i++) {
+            userIndex.remove(users.remove(users.size() - 1));
+        }
+
+        for (Attraction attraction : attractions) {
+            AttractionCrowdDto dto = crowd.getCrowdNear(attraction.attractionName, CROWD_RADIUS).orElseThrow();
+            assertEquals(bruteForceCount(attraction, CROWD_RADIUS), dto.users(), attraction.attractionName);
+        }
+
+        List<AttractionCrowdDto> top = crowd.getMostCrowdedAttractions(5);
+        assertEquals(5, top.size());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).users() >= top.get(i).users());
+        }
+
+        userIndex.clear();
+        assertEquals(0, crowd.getMostCrowdedAttractions(1).get(0).users());
+    }
+
+    @Test
+    public void arbitraryRadiusMatchesBruteForce() {
+        CrowdDensityService crowd = subscribedService();
+        for (double radius : new double[] {1, 25, 80, 400, 3000}) {
+            for (Attraction attraction : attractions) {
+                assertEquals(bruteForceCount(attraction, radius),
+                        crowd.getCrowdNear(attraction.attractionName, radius).orElseThrow().users(),
+                        attraction.attractionName + " / " + radius);
+            }
+        }
+        assertTrue(crowd.getCrowdNear("inconnue", 10).isEmpty());
+    }
+
+    private CrowdDensityService subscribedService() {
+        CrowdDensityService crowd = new CrowdDensityService(userIndex, attractionCatalog, CROWD_RADIUS);
+        userIndex.addPositionListener(crowd);
+        return crowd;
+    }
+
+    private int bruteForceCount(Attraction attraction, double radius) {
+        int count = 0;
+        for (User user : users) {
+            Location last = user.getLastVisitedLocation().location;
+            if (GeoGrid.distanceMiles(last.latitude, last.longitude, attraction.latitude, attraction.longitude) <= radius) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Position à quelques dizaines de milles d'une attraction tirée au hasard
+    private Location randomLocationNearAttraction() {
+        Attraction attraction = attractions.get(random.nextInt(attractions.size()));
+        return new Location(attraction.latitude + (random.nextDouble() - 0.5) * 0.6,
+                attraction.longitude + (random.nextDouble() - 0.5) * 0.6);
+    }
+}
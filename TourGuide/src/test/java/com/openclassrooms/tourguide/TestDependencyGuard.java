@@ -0,0 +1,109 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.resilience.DependencyGuard;
+import com.openclassrooms.tourguide.resilience.DependencyGuard.Outcome;
+import com.openclassrooms.tourguide.resilience.DependencyGuard.Settings;
+import com.openclassrooms.tourguide.resilience.DependencyUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+public class TestDependencyGuard {
+
+    private final Scheduler scheduler = Schedulers.newBoundedElastic(8, 100, "guard-test");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void disposeScheduler() {
+        scheduler.dispose();
+    }
+
+    @Test
+    public void opensCircuitAfterTimeoutsThenClosesAfterTrialCalls() throws InterruptedException {
+        DependencyGuard guard = guard(new Settings(Duration.ofMillis(50), 8, Duration.ofSeconds(1), Duration.ZERO,
+                4, 4, 0.5, Duration.ofMillis(200), 2));
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            DependencyUnavailableException e = assertThrows(DependencyUnavailableException.class,
+                    () -> guard.call(() -> sleepThen(calls, 300, "lent")));
+            assertEquals(Outcome.TIMEOUT, e.getOutcome());
+        }
+        // Disjoncteur ouvert: refus immédiat, sans appel
+        int callsWhenOpened = calls.get();
+        DependencyUnavailableException rejected = assertThrows(DependencyUnavailableException.class,
+                () -> guard.call(() -> sleepThen(calls, 0, "rapide")));
+        assertEquals(Outcome.CIRCUIT_OPEN, rejected.getOutcome());
+        assertEquals(callsWhenOpened, calls.get());
+        assertEquals(2, gauge("tourguide.dependency.circuit.state"));
+
+        // Après wait-in-open, deux appels d'essai réussis referment le disjoncteur
+        Thread.sleep(250);
+        assertEquals("rapide", guard.call(() -> sleepThen(calls, 0, "rapide")));
+        assertEquals("rapide", guard.call(() -> sleepThen(calls, 0, "rapide")));
+        assertEquals(0, gauge("tourguide.dependency.circuit.state"));
+        assertEquals(4, meterRegistry.get("tourguide.dependency.calls").tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    public void hedgedCallAnswersWhenFirstAttemptIsSlow() {
+        DependencyGuard guard = guard(new Settings(Duration.ofSeconds(2), 8, Duration.ofSeconds(1),
+                Duration.ofMillis(50), 10, 10, 0.5, Duration.ofSeconds(30), 1));
+        AtomicInteger calls = new AtomicInteger();
+
+        long start = System.nanoTime();
+        String answer = guard.call(() -> sleepThen(calls, calls.get() == 0 ? 1000 : 10, "réponse"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("réponse", answer);
+        assertTrue(elapsedMillis < 500, elapsedMillis + " ms");
+        assertEquals(1, meterRegistry.get("tourguide.dependency.hedges").counter().count());
+    }
+
+    @Test
+    public void rejectsAsyncCallsWhenBulkheadIsFull() throws Exception {
+        DependencyGuard guard = guard(new Settings(Duration.ofSeconds(2), 1, Duration.ofSeconds(1), Duration.ZERO,
+                10, 10, 0.5, Duration.ofSeconds(30), 1));
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> busy = guard.submit(() -> {
+            release.await();
+            return "occupé";
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> guard.submit(() -> "refusé").get());
+        assertEquals(Outcome.REJECTED, ((DependencyUnavailableException) e.getCause()).getOutcome());
+
+        release.countDown();
+        assertEquals("occupé", busy.get());
+        assertEquals("libre", guard.submit(() -> "libre").get());
+        assertEquals(1, gauge("tourguide.dependency.bulkhead.available"));
+    }
+
+    private DependencyGuard guard(Settings settings) {
+        return new DependencyGuard("test", settings, scheduler, meterRegistry);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static String sleepThen(AtomicInteger calls, long millis, String value) throws InterruptedException {
+        calls.incrementAndGet();
+        Thread.sleep(millis);
+        return value;
+    }
+}
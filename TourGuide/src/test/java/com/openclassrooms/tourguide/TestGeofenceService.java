@@ -0,0 +1,62 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.geo.GeoGrid;
+import com.openclassrooms.tourguide.service.GeofenceService;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+public class TestGeofenceService {
+
+    private final GeofenceService geofenceService = new GeofenceService(new AttractionCatalog(new GpsUtil(), null));
+
+    @Test
+    public void zonesMatchBruteForceScan() {
+        Random random = new Random(42);
+        List<Attraction> attractions = geofenceService.getAttractions();
+
+        for (double radius : new double[] {10, 150, 2000}) {
+            for (int i = 0; i < 5_000; i++) {
+                // Une position sur deux tirée près d'une attraction pour tester les bords de zone
+                Location location;
+                if (i % 2 == 0) {
+                    Attraction a = attractions.get(random.nextInt(attractions.size()));
+                    double spread = radius * 1.5 / GeoGrid.MILES_PER_DEGREE;
+                    location = new Location(a.latitude + (random.nextDouble() * 2 - 1) * spread,
+                            a.longitude + (random.nextDouble() * 2 - 1) * spread);
+                } else {
+                    location = new Location(random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180);
+                }
+
+                List<Attraction> expected = attractions.stream()
+                        .filter(a -> GeoGrid.distanceMiles(a.latitude, a.longitude,
+                                location.latitude, location.longitude) <= radius)
+                        .toList();
+                List<Attraction> entered = new ArrayList<>();
+                geofenceService.rewardZones(radius).forEachZoneContaining(location, entered::add);
+
+                assertEquals(expected.size(), entered.size());
+                assertTrue(entered.containsAll(expected));
+            }
+        }
+    }
+
+    @Test
+    public void hugeRadiusCoversEveryAttraction() {
+        List<Attraction> entered = new ArrayList<>();
+        geofenceService.rewardZones(Integer.MAX_VALUE).forEachZoneContaining(new Location(0, 0), entered::add);
+
+        assertEquals(geofenceService.getAttractions().size(), entered.size());
+    }
+}
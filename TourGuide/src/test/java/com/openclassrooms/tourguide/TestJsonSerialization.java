@@ -0,0 +1,121 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.openclassrooms.tourguide.dto.NearbyAttractionDto;
+import com.openclassrooms.tourguide.dto.TourGuideJsonSerializers;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+public class TestJsonSerialization {
+
+    private static final int ITERATIONS = 20_000;
+
+    // Même configuration que Spring Boot, avec et sans les sérialiseurs en écriture directe
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper streaming = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .serializerByType(NearbyAttractionDto.class, new TourGuideJsonSerializers.NearbyAttractionSerializer())
+            .serializerByType(UserReward.class, new TourGuideJsonSerializers.UserRewardSerializer())
+            .serializerByType(VisitedLocation.class, new TourGuideJsonSerializers.VisitedLocationSerializer())
+            .build();
+
+    private final UUID userId = UUID.randomUUID();
+    private final Location userLocation = new Location(33.817595, -117.922008);
+    private final List<Attraction> attractions = List.of(
+            new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008),
+            new Attraction("Jackson Hole", "Jackson Hole", "WY", 43.582767, -110.821999),
+            new Attraction("Mojave National Preserve", "Kelso", "CA", 35.141689, -115.510399),
+            new Attraction("Joshua Tree National Park", "Joshua Tree National Park", "CA", 33.881866, -115.90065),
+            new Attraction("Buffalo National River", "St Joe", "AR", 35.985512, -92.757652));
+
+    @Test
+    public void streamingSerializersKeepWireFormat() throws Exception {
+        List<UserReward> rewards = rewards();
+        assertEquals(reflective.writeValueAsString(rewards), streaming.writeValueAsString(rewards));
+        assertEquals(reflective.writeValueAsString(rewards.get(0).visitedLocation),
+                streaming.writeValueAsString(rewards.get(0).visitedLocation));
+        assertEquals(reflective.writeValueAsString(nearbyAsMaps()), streaming.writeValueAsString(nearbyAsDtos()));
+    }
+
+    @Test
+    public void streamingSerializersAllocateLess() throws Exception {
+        List<UserReward> rewards = rewards();
+
+        long mapBytes = allocatedPerCall(() -> reflective.writeValue(OutputStream.nullOutputStream(), nearbyAsMaps()));
+        long dtoBytes = allocatedPerCall(() -> streaming.writeValue(OutputStream.nullOutputStream(), nearbyAsDtos()));
+        long reflectiveRewardBytes = allocatedPerCall(() -> reflective.writeValue(OutputStream.nullOutputStream(), rewards));
+        long streamingRewardBytes = allocatedPerCall(() -> streaming.writeValue(OutputStream.nullOutputStream(), rewards));
+
+        System.out.println("getNearbyAttractions: Map+réflexion=" + mapBytes + " o/appel, DTO+écriture directe=" + dtoBytes + " o/appel");
+        System.out.println("getRewards: réflexion=" + reflectiveRewardBytes + " o/appel, écriture directe=" + streamingRewardBytes + " o/appel");
+        assertTrue(dtoBytes < mapBytes);
+        assertTrue(streamingRewardBytes <= reflectiveRewardBytes);
+    }
+
+    private List<Map<String, Object>> nearbyAsMaps() {
+        return attractions.stream().map(attraction -> {
+            Map<String, Object> attractionMap = new LinkedHashMap<>();
+            attractionMap.put("attractionName", attraction.attractionName);
+            attractionMap.put("attractionLatitude", attraction.latitude);
+            attractionMap.put("attractionLongitude", attraction.longitude);
+            attractionMap.put("userLatitude", userLocation.latitude);
+            attractionMap.put("userLongitude", userLocation.longitude);
+            attractionMap.put("distanceMiles", 12.5);
+            attractionMap.put("rewardPoints", 250);
+            return attractionMap;
+        }).toList();
+    }
+
+    private List<NearbyAttractionDto> nearbyAsDtos() {
+        return attractions.stream().map(attraction -> new NearbyAttractionDto(
+                attraction.attractionName, attraction.latitude, attraction.longitude,
+                userLocation.latitude, userLocation.longitude, 12.5, 250)).toList();
+    }
+
+    private List<UserReward> rewards() {
+        List<UserReward> rewards = new ArrayList<>();
+        for (Attraction attraction : attractions) {
+            rewards.add(new UserReward(new VisitedLocation(userId, attraction, new Date()), attraction, 250));
+        }
+        return rewards;
+    }
+
+    private interface Serialization {
+        void run() throws Exception;
+    }
+
+    // Octets alloués par appel sur le thread courant, après un échauffement équivalent
+    private static long allocatedPerCall(Serialization serialization) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < ITERATIONS; i++) {
+            serialization.run();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            serialization.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+    }
+}
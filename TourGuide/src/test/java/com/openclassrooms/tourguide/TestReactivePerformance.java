@@ -0,0 +1,79 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.time.StopWatch;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compare la capacité de connexions simultanées de la pile MVC bloquante et des endpoints
+ * réactifs, à matériel égal : même application, même pool Tomcat volontairement réduit.
+ * Le débit réactif doit dépasser celui de MVC d'au moins {@code benchmark.reactive.min-speedup}
+ * (1,1 par défaut ; ~1,3 mesuré sur un seul cœur) : en deçà, un appel bloquant occupe de nouveau
+ * les threads Tomcat.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.threads.max=8"
+)
+public class TestReactivePerformance {
+
+    private static final int CONCURRENT_CONNECTIONS = 32;
+    private static final double MIN_SPEEDUP = Double.parseDouble(System.getProperty("benchmark.reactive.min-speedup", "1.1"));
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Test
+    public void concurrentNearbyAttractionsMvcVersusReactive() {
+        // Utilisateurs distincts pour chaque pile: aucun point de récompense déjà en cache
+        long mvcMillis = fireConcurrently("/getNearbyAttractions", 0);
+        long reactiveMillis = fireConcurrently("/reactive/getNearbyAttractions", CONCURRENT_CONNECTIONS);
+
+        double mvcThroughput = CONCURRENT_CONNECTIONS * 1000.0 / mvcMillis;
+        double reactiveThroughput = CONCURRENT_CONNECTIONS * 1000.0 / reactiveMillis;
+        log.info("getNearbyAttractions, {} connexions, 8 threads Tomcat: MVC {} ms ({} req/s), réactif {} ms ({} req/s)",
+                CONCURRENT_CONNECTIONS, mvcMillis, String.format("%.1f", mvcThroughput),
+                reactiveMillis, String.format("%.1f", reactiveThroughput));
+
+        assertTrue(reactiveThroughput >= MIN_SPEEDUP * mvcThroughput,
+                () -> String.format("débit réactif %.1f req/s < %.1f x débit MVC %.1f req/s",
+                        reactiveThroughput, MIN_SPEEDUP, mvcThroughput));
+    }
+
+    private long fireConcurrently(String path, int firstUserIndex) {
+        StopWatch stopWatch = StopWatch.createStarted();
+        List<CompletableFuture<HttpResponse<String>>> responses = IntStream
+                .range(firstUserIndex, firstUserIndex + CONCURRENT_CONNECTIONS)
+                .mapToObj(i -> HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + port + path + "?userName=internalUser" + i))
+                        .timeout(Duration.ofMinutes(1))
+                        .build())
+                .map(request -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .toList();
+        responses.forEach(f -> assertEquals(200, f.join().statusCode()));
+        stopWatch.stop();
+        return stopWatch.getTime();
+    }
+}
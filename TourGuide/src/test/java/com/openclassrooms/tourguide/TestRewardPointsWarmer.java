@@ -0,0 +1,122 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.config.UserDataHealthIndicator;
+import com.openclassrooms.tourguide.geo.GeoGrid;
+import com.openclassrooms.tourguide.service.RewardPointsService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserIndex;
+import com.openclassrooms.tourguide.warmup.RewardPointsWarmer;
+import com.openclassrooms.tourguide.warmup.RewardPointsWarmupHealthIndicator;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import rewardCentral.RewardCentral;
+
+public class TestRewardPointsWarmer {
+
+    private static final int USERS = 30;
+    private static final int ATTRACTIONS_PER_USER = 3;
+
+    private final UserIndex userIndex = new UserIndex();
+    private final AttractionCatalog attractionCatalog = new AttractionCatalog(new GpsUtil(), null);
+    private final ConcurrentLinkedQueue<String> calls = new ConcurrentLinkedQueue<>();
+    private RewardPointsWarmer warmer;
+
+    // Enregistre l'ordre des paires demandées, sans latence RewardCentral
+    private final RewardPointsService rewardPointsService = new RewardPointsService(new RewardCentral(), null) {
+        @Override
+        public int getRewardPoints(Attraction attraction, User user) {
+            calls.add(attraction.attractionName + "|" + user.getUserName());
+            return 100;
+        }
+    };
+
+    @AfterEach
+    void stopWarmer() {
+        if (warmer != null) {
+            warmer.stop();
+        }
+    }
+
+    @Test
+    public void warmsNearestAttractionsFirstThenReportsReady() throws InterruptedException {
+        for (int i = 0; i < USERS; i++) {
+            User user = new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com");
+            user.addToVisitedLocations(new VisitedLocation(user.getUserId(),
+                    new Location(30 + i * 0.5, -120 + i), new Date()));
+            userIndex.add(user);
+        }
+        warmer = new RewardPointsWarmer(userIndex, attractionCatalog, rewardPointsService, new UserDataHealthIndicator(),
+                new SimpleMeterRegistry(),
+                true, ATTRACTIONS_PER_USER, 1, 10_000, 50_000, 1.0, Duration.ofMinutes(5));
+        RewardPointsWarmupHealthIndicator health = new RewardPointsWarmupHealthIndicator(warmer);
+        userIndex.addPositionListener(warmer);
+
+        assertEquals(USERS * ATTRACTIONS_PER_USER, warmer.getStartupPlanned());
+        assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+
+        warmer.start();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!warmer.isWarm() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(warmer.isWarm());
+        assertEquals(Status.UP, health.health().getStatus());
+
+        // Un seul thread: les USERS premiers appels portent sur l'attraction la plus proche de chacun
+        List<String> firstRound = calls.stream().limit(USERS).toList();
+        for (User user : userIndex.users()) {
+            String nearest = nearestAttraction(user.getLastVisitedLocation().location).attractionName;
+            assertTrue(firstRound.contains(nearest + "|" + user.getUserName()), user.getUserName());
+        }
+    }
+
+    @Test
+    public void warmsUsersCreatedAfterStartup() throws InterruptedException {
+        warmer = new RewardPointsWarmer(userIndex, attractionCatalog, rewardPointsService, new UserDataHealthIndicator(),
+                new SimpleMeterRegistry(),
+                true, ATTRACTIONS_PER_USER, 2, 10_000, 50_000, 0.8, Duration.ofMinutes(5));
+        userIndex.addPositionListener(warmer);
+        warmer.start();
+
+        User late = new User(UUID.randomUUID(), "late", "000", "late@tourGuide.com");
+        userIndex.add(late);
+        assertFalse(calls.stream().anyMatch(call -> call.endsWith("|late")), "aucune position: rien à préchauffer");
+
+        Location first = new Location(36.1, -115.2);
+        late.addToVisitedLocations(new VisitedLocation(late.getUserId(), first, new Date()));
+        userIndex.updatePosition(late, first);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (calls.size() < ATTRACTIONS_PER_USER && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(ATTRACTIONS_PER_USER, calls.stream().filter(call -> call.endsWith("|late")).count());
+    }
+
+    private Attraction nearestAttraction(Location location) {
+        return attractionCatalog.getAttractions().stream()
+                .min(Comparator.comparingDouble(a ->
+                        GeoGrid.distanceMiles(a.latitude, a.longitude, location.latitude, location.longitude)))
+                .orElseThrow();
+    }
+}
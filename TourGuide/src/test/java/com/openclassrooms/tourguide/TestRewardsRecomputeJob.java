@@ -0,0 +1,198 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.openclassrooms.tourguide.batch.RewardsCheckpointStore;
+import com.openclassrooms.tourguide.batch.RewardsRecomputeJob;
+import com.openclassrooms.tourguide.batch.RewardsRecomputeJob.JobStatus;
+import com.openclassrooms.tourguide.batch.RewardsRecomputeJob.State;
+import com.openclassrooms.tourguide.service.GeofenceService;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+@SpringBootTest(properties = {
+        "tourguide.batch.chunk-size=5",
+        "tourguide.batch.parallelism=8",
+        "tourguide.batch.checkpoint-dir=target/test-rewards-job",
+        "tourguide.batch.resume-max-age=1h"
+})
+@ActiveProfiles("test")
+public class TestRewardsRecomputeJob {
+
+    private static final int USERS = 20;
+    private static final Path CHECKPOINT_DIR = Path.of("target/test-rewards-job");
+
+    @Autowired
+    private RewardsRecomputeJob job;
+
+    @Autowired
+    private RewardsCheckpointStore checkpointStore;
+
+    @Autowired
+    private TourGuideService tourGuideService;
+
+    @SpyBean
+    private RewardsService rewardsService;
+
+    @Autowired
+    private GeofenceService geofenceService;
+
+    private List<User> users;
+
+    @BeforeEach
+    void resetState() {
+        tourGuideService.clearAllUsers();
+        rewardsService.setProximityBuffer(10);
+        checkpointStore.clear();
+
+        // Chaque utilisateur a visité une attraction: une récompense attendue par utilisateur
+        Attraction attraction = geofenceService.getAttractions().get(0);
+        users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User(UUID.randomUUID(), String.format("jobUser%02d", i), "000", "job@tourGuide.com");
+            user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+            tourGuideService.addUser(user);
+            users.add(user);
+        }
+        users.sort(Comparator.comparing(User::getUserName));
+    }
+
+    @Test
+    public void runCompletesAllChunks() throws InterruptedException {
+        job.start(null);
+        JobStatus status = awaitEnd();
+
+        assertEquals(State.COMPLETED, status.state());
+        assertEquals(USERS / 5, status.completedChunks());
+        assertEquals(USERS, status.processedUsers());
+        users.forEach(user -> assertEquals(1, user.getUserRewards().size()));
+    }
+
+    @Test
+    public void interruptedRunResumesFromCheckpoint() throws InterruptedException {
+        // Run interrompu après les deux premières tranches
+        checkpointStore.saveSnapshot("interrupted-run", 5, users.stream().map(User::getUserName).toList());
+        BitSet done = new BitSet();
+        done.set(0, 2);
+        checkpointStore.saveProgress(done);
+
+        job.start(null);
+        JobStatus status = awaitEnd();
+
+        assertEquals("interrupted-run", status.runId());
+        assertEquals(State.COMPLETED, status.state());
+        assertEquals(USERS - 10, status.processedUsers());
+        for (int i = 0; i < USERS; i++) {
+            assertEquals(i < 10 ? 0 : 1, users.get(i).getUserRewards().size());
+        }
+    }
+
+    @Test
+    public void pauseRacingTheEndOfARunNeverLeavesItPaused() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            job.start(null);
+            // Pauses et reprises en rafale jusqu'à la fin du run
+            JobStatus status = job.status();
+            while (status.state() == State.RUNNING || status.state() == State.PAUSED) {
+                job.pause();
+                status = job.resume();
+            }
+            status = job.pause();
+
+            assertEquals(State.COMPLETED, status.state());
+            assertEquals(State.COMPLETED, job.resume().state());
+        }
+    }
+
+    @Test
+    public void staleCheckpointIsOnlyResumedOnRequest() throws InterruptedException, IOException {
+        saveStaleCheckpoint();
+        job.start(null);
+        JobStatus status = awaitEnd();
+
+        // Point de reprise de plus d'une heure: nouveau run sur tous les utilisateurs
+        assertNotEquals("stale-run", status.runId());
+        assertEquals(State.COMPLETED, status.state());
+        assertEquals(USERS, status.processedUsers());
+
+        saveStaleCheckpoint();
+        job.start(null, true);
+        status = awaitEnd();
+
+        assertEquals("stale-run", status.runId());
+        assertEquals(USERS - 10, status.processedUsers());
+    }
+
+    @Test
+    public void chunkWithDeferredRewardsIsLeftForTheNextRun() throws InterruptedException {
+        // RewardCentral indisponible pour le premier utilisateur: une récompense reportée
+        User deferred = users.get(0);
+        doReturn(1).when(rewardsService).recalculateRewards(deferred);
+
+        job.start(null);
+        JobStatus status = awaitEnd();
+
+        assertEquals(State.INCOMPLETE, status.state());
+        assertEquals(USERS / 5 - 1, status.completedChunks());
+        assertEquals(1, status.deferredRewards());
+
+        // Le run suivant ne refait que la tranche incomplète
+        doCallRealMethod().when(rewardsService).recalculateRewards(deferred);
+        job.start(null);
+        status = awaitEnd();
+
+        assertEquals(State.COMPLETED, status.state());
+        assertEquals(5, status.processedUsers());
+        assertEquals(1, deferred.getUserRewards().size());
+    }
+
+    private void saveStaleCheckpoint() throws IOException {
+        checkpointStore.saveSnapshot("stale-run", 5, users.stream().map(User::getUserName).toList());
+        BitSet done = new BitSet();
+        done.set(0, 2);
+        checkpointStore.saveProgress(done);
+        FileTime twoDaysAgo = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        try (var files = Files.list(CHECKPOINT_DIR)) {
+            for (Path file : files.toList()) {
+                Files.setLastModifiedTime(file, twoDaysAgo);
+            }
+        }
+    }
+
+    private JobStatus awaitEnd() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        JobStatus status = job.status();
+        while ((status.state() == State.RUNNING || status.state() == State.PAUSED) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            status = job.status();
+        }
+        return status;
+    }
+}
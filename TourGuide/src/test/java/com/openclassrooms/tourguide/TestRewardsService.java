@@ -1,7 +1,13 @@
 package com.openclassrooms.tourguide;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
 
 import java.util.Date;
 import java.util.List;
@@ -9,9 +15,12 @@ import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
@@ -80,5 +89,53 @@ public class TestRewardsService {
         assertEquals(gpsUtil.getAttractions().size(), userRewards.size());
 	}
 
+    @Test
+    public void calculateRewardsOnlyEvaluatesNewVisits() {
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        List<Attraction> attractions = gpsUtil.getAttractions();
+        user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(0), new Date()));
+
+        assertEquals(0, rewardsService.calculateRewards(user));
+        assertEquals(1, user.getUserRewards().size());
+        assertEquals(1, user.getRewardCursor().evaluatedVisits());
+
+        // Seule la nouvelle visite est examinée; le curseur avance jusqu'à la fin de l'historique
+        user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(1), new Date()));
+        rewardsService.calculateRewards(user);
+        assertEquals(2, user.getUserRewards().size());
+        assertEquals(2, user.getRewardCursor().evaluatedVisits());
+
+        // Nouveau rayon: l'historique est réexaminé en entier
+        rewardsService.setProximityBuffer(Integer.MAX_VALUE);
+        rewardsService.calculateRewards(user);
+        assertEquals(attractions.size(), user.getUserRewards().size());
+    }
+
+    @Test
+    public void slowClosestAttractionsAreReportedAsServiceUnavailable() {
+        RewardsService slowService = spy(rewardsService);
+        doAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return List.of();
+        }).when(slowService).getClosestAttractions(any(Location.class), anyInt());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> slowService.getClosestAttractionsReactive(new Location(0, 0), 5).block());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+    }
+
+    @Test
+    public void recalculateRewardsRescansWholeHistory() {
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        user.addToVisitedLocations(new VisitedLocation(user.getUserId(), gpsUtil.getAttractions().get(0), new Date()));
+        rewardsService.calculateRewards(user);
+        User.RewardCursor cursor = user.getRewardCursor();
+
+        assertEquals(0, rewardsService.recalculateRewards(user));
+        assertEquals(1, user.getUserRewards().size());
+        assertEquals(1, user.getRewardCursor().evaluatedVisits());
+        assertNotSame(cursor, user.getRewardCursor());
+    }
+
   
 }
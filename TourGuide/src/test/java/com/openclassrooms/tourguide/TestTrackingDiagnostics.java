@@ -0,0 +1,110 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.tourguide.diagnostics.Stage;
+import com.openclassrooms.tourguide.diagnostics.TrackingDiagnostics;
+import com.openclassrooms.tourguide.diagnostics.TrackingDiagnostics.SlowCycleReport;
+import com.openclassrooms.tourguide.diagnostics.TrackingDiagnostics.UserEvaluationReport;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Attraction;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class TestTrackingDiagnostics {
+
+    private final Attraction attraction = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void slowCycleKeepsSlowestUsersWithStageBreakdown() throws Exception {
+        TrackingDiagnostics diagnostics = new TrackingDiagnostics(true, Duration.ZERO, 5, 2, false,
+                Duration.ofMinutes(1), directory.toString());
+        Path file = directory.resolve("events.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.openclassrooms.tourguide.TrackerCycle");
+            recording.enable("com.openclassrooms.tourguide.UserEvaluation");
+            recording.enable("com.openclassrooms.tourguide.RewardEvaluation");
+            recording.start();
+
+            // Hors cycle: absorbe le coût du premier passage (chargement des classes d'événements)
+            evaluate(diagnostics, null, "warmup", 0);
+            TrackingDiagnostics.Cycle cycle = diagnostics.startCycle(3);
+            evaluate(diagnostics, cycle, "fast", 0);
+            evaluate(diagnostics, cycle, "slow", 80);
+            evaluate(diagnostics, cycle, "medium", 40);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<SlowCycleReport> cycles = diagnostics.getSlowCycles();
+        assertEquals(1, cycles.size());
+        assertEquals(3, cycles.get(0).users());
+        List<UserEvaluationReport> slowest = cycles.get(0).slowestUsers();
+        assertEquals(List.of("slow", "medium"), slowest.stream().map(UserEvaluationReport::userName).toList());
+        assertTrue(slowest.get(0).stageMillis().get(Stage.GPS) >= 80);
+        assertEquals(1, slowest.get(0).rewardEvaluations());
+        assertEquals("Disneyland", slowest.get(0).slowestAttraction());
+
+        Set<String> recorded = RecordingFile.readAllEvents(file).stream()
+                .map(RecordedEvent::getEventType)
+                .map(type -> type.getName())
+                .collect(Collectors.toSet());
+        assertTrue(recorded.containsAll(Set.of("com.openclassrooms.tourguide.TrackerCycle",
+                "com.openclassrooms.tourguide.UserEvaluation", "com.openclassrooms.tourguide.RewardEvaluation")),
+                recorded.toString());
+    }
+
+    @Test
+    public void disabledDiagnosticsRecordNothing() {
+        TrackingDiagnostics diagnostics = new TrackingDiagnostics(false, Duration.ZERO, 5, 2, false,
+                Duration.ofMinutes(1), directory.toString());
+
+        TrackingDiagnostics.Cycle cycle = diagnostics.startCycle(1);
+        assertNull(cycle);
+        assertNull(diagnostics.startReward(attraction, user("ignored")));
+        evaluate(diagnostics, cycle, "ignored", 0);
+
+        assertTrue(diagnostics.getSlowCycles().isEmpty());
+    }
+
+    private void evaluate(TrackingDiagnostics diagnostics, TrackingDiagnostics.Cycle cycle, String userName,
+                          long gpsMillis) {
+        diagnostics.startEvaluation(userName);
+        try {
+            Thread.sleep(gpsMillis);
+            diagnostics.stageCompleted(Stage.GPS);
+            TrackingDiagnostics.RewardTrace trace = diagnostics.startReward(attraction, user(userName));
+            if (trace != null) {
+                trace.completed(100);
+            }
+            diagnostics.stageCompleted(Stage.REWARDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            diagnostics.finishEvaluation(cycle);
+        }
+    }
+
+    private static User user(String userName) {
+        return new User(UUID.randomUUID(), userName, "000", userName + "@tourGuide.com");
+    }
+}
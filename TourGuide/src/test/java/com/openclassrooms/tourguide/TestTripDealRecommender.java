@@ -0,0 +1,133 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.config.BlockingCallSchedulers;
+import com.openclassrooms.tourguide.deals.TripDealRecommender;
+import com.openclassrooms.tourguide.resilience.DependencyGuards;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+public class TestTripDealRecommender {
+
+    private final AttractionCatalog attractionCatalog = new AttractionCatalog(new GpsUtil(), null);
+    private final BlockingCallSchedulers schedulers = new BlockingCallSchedulers(4, 4, 4, 1000);
+    private final AtomicInteger pricingCalls = new AtomicInteger();
+    private volatile long pricingDelayMillis;
+
+    // Prix déterministes: 100 par adulte + 10 par rang, moins les points (comme TripPricer)
+    private final TripPricer tripPricer = new TripPricer() {
+        @Override
+        public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children,
+                                       int nightsStay, int rewardsPoints) {
+            pricingCalls.incrementAndGet();
+            try {
+                Thread.sleep(pricingDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<Provider> providers = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                providers.add(new Provider(attractionId, "provider" + i, Math.max(0, 100 * adults + 10 * i - rewardsPoints)));
+            }
+            return providers;
+        }
+    };
+
+    @AfterEach
+    void disposeSchedulers() {
+        schedulers.dispose();
+    }
+
+    @Test
+    public void usersWithSameProfileShareCandidateLists() {
+        TripDealRecommender recommender = recommender(Duration.ofSeconds(5));
+        Attraction attraction = attractionCatalog.getAttractions().get(0);
+        User first = userAt(attraction);
+        User second = userAt(attraction);
+        second.addUserReward(new UserReward(second.getLastVisitedLocation(), attraction, 50));
+
+        List<Provider> firstDeals = recommender.recommend(first);
+        int callsAfterFirst = pricingCalls.get();
+        List<Provider> secondDeals = recommender.recommend(second);
+
+        assertEquals(3, callsAfterFirst);
+        assertEquals(callsAfterFirst, pricingCalls.get(), "même profil: aucune nouvelle demande de prix");
+        assertEquals(10, firstDeals.size());
+        assertEquals(100, firstDeals.get(0).price);
+        // Points cumulés déduits; l'attraction déjà récompensée passe après les autres
+        assertEquals(50, secondDeals.get(0).price);
+        assertTrue(secondDeals.stream().limit(10).noneMatch(deal -> deal.tripId.equals(attraction.attractionId)));
+
+        User family = userAt(attraction);
+        family.getUserPreferences().setNumberOfAdults(2);
+        recommender.recommend(family);
+        assertEquals(callsAfterFirst * 2, pricingCalls.get(), "autre profil: nouvelles listes");
+    }
+
+    @Test
+    public void answersWithinLatencyBudget() throws InterruptedException {
+        TripDealRecommender recommender = recommender(Duration.ofMillis(50));
+        pricingDelayMillis = 500;
+        User user = userAt(attractionCatalog.getAttractions().get(0));
+
+        long start = System.nanoTime();
+        List<Provider> deals = recommender.recommend(user);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 300, elapsedMillis + " ms");
+        assertTrue(deals.isEmpty(), "rien de prêt: offres précédentes (aucune)");
+
+        // Les demandes lancées se terminent en fond et servent à l'appel suivant
+        Thread.sleep(800);
+        assertEquals(10, recommender.recommend(user).size());
+    }
+
+    @Test
+    public void prefersAttractionsWithinProximity() {
+        TripDealRecommender recommender = recommender(Duration.ofSeconds(5));
+        Attraction attraction = attractionCatalog.getAttractions().get(0);
+        User user = userAt(attraction);
+        user.getUserPreferences().setAttractionProximity(1);
+
+        List<Provider> deals = recommender.recommend(user);
+
+        assertEquals(5, deals.size());
+        assertTrue(deals.stream().allMatch(deal -> deal.tripId.equals(attraction.attractionId)));
+    }
+
+    private TripDealRecommender recommender(Duration latencyBudget) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new TripDealRecommender(tripPricer, attractionCatalog,
+                new DependencyGuards(schedulers, meterRegistry, new StandardEnvironment()), meterRegistry,
+                3, 10, latencyBudget, Duration.ofMinutes(10), 1000);
+    }
+
+    private static User userAt(Location location) {
+        User user = new User(UUID.randomUUID(), "user" + UUID.randomUUID(), "000", "user@tourGuide.com");
+        user.addToVisitedLocations(new VisitedLocation(user.getUserId(),
+                new Location(location.latitude, location.longitude), new Date()));
+        return user;
+    }
+}
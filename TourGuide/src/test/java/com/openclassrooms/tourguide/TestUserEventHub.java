@@ -0,0 +1,181 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.openclassrooms.tourguide.notification.UserEventHub;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TestUserEventHub {
+
+    private static final int BUFFER_SIZE = 4;
+    private static final Duration SEND_TIMEOUT = Duration.ofMillis(200);
+
+    private final UserEventHub hub = new UserEventHub(new SimpleMeterRegistry(), BUFFER_SIZE,
+            Duration.ofMinutes(1), Duration.ofMinutes(1), 2, SEND_TIMEOUT);
+    private final User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+    private final Attraction attraction = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+
+    // Enregistre le texte de chaque événement envoyé; peut bloquer pour simuler un client lent
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+        }
+    }
+
+    @Test
+    public void pushesEventsInOrder() throws InterruptedException {
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        hub.register(user.getUserId(), emitter);
+
+        VisitedLocation visit = new VisitedLocation(user.getUserId(), new Location(33.8, -117.9), new Date());
+        hub.locationUpdated(user, visit);
+        hub.rewardGranted(user, new UserReward(visit, attraction, 250));
+
+        awaitSize(emitter.sent, 2);
+        assertTrue(emitter.sent.get(0).contains("event:" + UserEventHub.LOCATION_EVENT));
+        assertTrue(emitter.sent.get(1).contains("event:" + UserEventHub.REWARD_EVENT));
+    }
+
+    @Test
+    public void evictsSlowConsumer() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        hub.register(user.getUserId(), slow);
+        hub.register(user.getUserId(), fast);
+
+        // Le premier envoi au client lent bloque: son tampon finit par déborder
+        VisitedLocation visit = new VisitedLocation(user.getUserId(), new Location(33.8, -117.9), new Date());
+        for (int i = 0; i < BUFFER_SIZE + 2; i++) {
+            hub.locationUpdated(user, visit);
+            Thread.sleep(20); // laisse le client rapide suivre
+        }
+
+        assertEquals(1, hub.getSubscriberCount(user.getUserId()));
+        awaitSize(fast.sent, BUFFER_SIZE + 2);
+        assertEquals(BUFFER_SIZE + 2, fast.sent.size());
+        release.countDown();
+    }
+
+    @Test
+    public void stalledWritesDoNotBlockOtherSubscribers() throws InterruptedException {
+        hub.start();
+        // Deux clients bloqués occupent les deux threads d'envoi
+        CountDownLatch never = new CountDownLatch(1);
+        User stalled1 = new User(UUID.randomUUID(), "stalled1", "000", "stalled1@tourGuide.com");
+        User stalled2 = new User(UUID.randomUUID(), "stalled2", "000", "stalled2@tourGuide.com");
+        hub.register(stalled1.getUserId(), new RecordingEmitter(never));
+        hub.register(stalled2.getUserId(), new RecordingEmitter(never));
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        hub.register(user.getUserId(), fast);
+
+        VisitedLocation visit = new VisitedLocation(user.getUserId(), new Location(33.8, -117.9), new Date());
+        hub.locationUpdated(stalled1, visit);
+        hub.locationUpdated(stalled2, visit);
+        hub.locationUpdated(user, visit);
+
+        // Écritures interrompues après send-timeout: les threads d'envoi servent à nouveau
+        awaitSize(fast.sent, 1);
+        assertEquals(1, fast.sent.size());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hub.getSubscriberCount(stalled1.getUserId()) + hub.getSubscriberCount(stalled2.getUserId()) > 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, hub.getSubscriberCount(stalled1.getUserId()));
+        assertEquals(0, hub.getSubscriberCount(stalled2.getUserId()));
+    }
+
+    @Test
+    public void shutdownInterruptSurvivesTheWriteInProgress() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Boolean> interruptedOnSend = new CopyOnWriteArrayList<>();
+        // Première écriture insensible aux interruptions: l'arrêt arrive pendant qu'elle est en cours
+        hub.register(user.getUserId(), new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                interruptedOnSend.add(Thread.currentThread().isInterrupted());
+                if (interruptedOnSend.size() > 1) {
+                    return;
+                }
+                writing.countDown();
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        release.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        VisitedLocation visit = new VisitedLocation(user.getUserId(), new Location(33.8, -117.9), new Date());
+        hub.locationUpdated(user, visit);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        hub.locationUpdated(user, visit);
+
+        hub.stop();
+        Thread.sleep(50);
+        release.countDown();
+
+        // L'écriture suivante voit toujours la demande d'arrêt
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (interruptedOnSend.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(false, true), interruptedOnSend);
+    }
+
+    @Test
+    public void publishingWithoutSubscriberIsNoop() {
+        hub.rewardGranted(user, new UserReward(new VisitedLocation(user.getUserId(), attraction, new Date()), attraction, 1));
+        assertEquals(0, hub.getSubscriberCount(user.getUserId()));
+    }
+
+    private static void awaitSize(List<String> events, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (events.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
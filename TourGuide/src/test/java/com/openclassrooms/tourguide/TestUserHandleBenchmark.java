@@ -0,0 +1,170 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntToLongFunction;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.tourguide.config.RewardPointsKeyGenerator;
+import com.openclassrooms.tourguide.user.HandleTable;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserIndex;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Banc d'essai des accès par utilisateur d'un cycle de suivi : anciennes tables (nom, UUID, clé de cache
+ * en chaîne) contre les handles entiers ({@link HandleTable}, {@link RewardPointsKeyGenerator}).
+ * <ul>
+ *   <li>{@code lookup} : utilisateur retrouvé à chaque interrogation du Tracker (par nom / par handle) ;</li>
+ *   <li>{@code position} : dernière position lue dans l'index (par UUID / par handle) ;</li>
+ *   <li>{@code schedule} : retrait puis replanification dans l'ensemble des utilisateurs suivis ;</li>
+ *   <li>{@code rewardKey} : lecture du cache {@code rewardPoints} avec sa clé (chaîne concaténée / handle).
+ *       L'évaluation SpEL de l'ancienne clé n'est pas comptée : l'écart réel est plus grand.</li>
+ * </ul>
+ * Accès dans un ordre aléatoire, comme les échéances du Tracker ; meilleure de {@code benchmark.rounds}
+ * passes après {@code benchmark.warmup-rounds}, en ns par opération. Résultats affichés et écrits dans
+ * {@code target/benchmark/user-handles.txt} ; seule l'égalité des résultats des deux variantes est vérifiée.
+ */
+@Tag("benchmark")
+public class TestUserHandleBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 100_000);
+    private static final int WARMUP_ROUNDS = Integer.getInteger("benchmark.warmup-rounds", 5);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 10);
+    private static final int ATTRACTIONS = 26;
+
+    private record Scenario(String name, IntToLongFunction current, IntToLongFunction handles) {
+    }
+
+    @Test
+    public void compareStringAndUuidMapsWithHandles() throws IOException {
+        UserIndex index = new UserIndex();
+        List<User> users = new ArrayList<>(USERS);
+        List<Attraction> attractions = new ArrayList<>(ATTRACTIONS);
+        for (int i = 0; i < ATTRACTIONS; i++) {
+            attractions.add(new Attraction("attraction" + i, "city", "state", i, -i));
+        }
+
+        // Anciennes structures, remplies comme l'étaient UserIndex, Tracker et le cache rewardPoints
+        Map<String, User> byName = new ConcurrentHashMap<>();
+        Map<UUID, Location> positionsById = new ConcurrentHashMap<>();
+        Set<String> scheduledByName = ConcurrentHashMap.newKeySet();
+        Cache<Object, Integer> stringKeyed = Caffeine.newBuilder().maximumSize(2L * USERS).build();
+        // Nouvelles structures
+        HandleTable<Location> positionsByHandle = new HandleTable<>();
+        HandleTable<User> scheduledByHandle = new HandleTable<>();
+        Cache<Object, Integer> handleKeyed = Caffeine.newBuilder().maximumSize(2L * USERS).build();
+        RewardPointsKeyGenerator keyGenerator = new RewardPointsKeyGenerator();
+
+        for (int i = 0; i < USERS; i++) {
+            User user = new User(UUID.randomUUID(), "internalUser" + i, "000", "internalUser" + i + "@tourGuide.com");
+            index.add(user);
+            users.add(user);
+            Location location = new Location(i % 170 - 85, i % 360 - 180);
+            Attraction attraction = attractionOf(attractions, user);
+            byName.put(user.getUserName(), user);
+            positionsById.put(user.getUserId(), location);
+            scheduledByName.add(user.getUserName());
+            stringKeyed.put(stringKey(attraction, user), i);
+            positionsByHandle.put(user.getHandle(), location);
+            scheduledByHandle.put(user.getHandle(), user);
+            handleKeyed.put(keyGenerator.generate(null, null, attraction, user), i);
+        }
+
+        // Ordre d'accès aléatoire; les variantes reçoivent ce qu'elles avaient sous la main (nom ou handle)
+        List<User> shuffled = new ArrayList<>(users);
+        Collections.shuffle(shuffled, new Random(42));
+        String[] names = shuffled.stream().map(User::getUserName).toArray(String[]::new);
+        int[] handles = shuffled.stream().mapToInt(User::getHandle).toArray();
+        User[] order = shuffled.toArray(User[]::new);
+
+        List<Scenario> scenarios = List.of(
+                new Scenario("lookup",
+                        i -> byName.get(names[i]).getHandle(),
+                        i -> index.getByHandle(handles[i]).getHandle()),
+                new Scenario("position",
+                        i -> (long) positionsById.get(order[i].getUserId()).latitude,
+                        i -> (long) positionsByHandle.get(order[i].getHandle()).latitude),
+                new Scenario("schedule",
+                        i -> scheduledByName.remove(names[i]) && scheduledByName.add(names[i]) ? 1 : 0,
+                        i -> scheduledByHandle.remove(handles[i]) != null
+                                && scheduledByHandle.putIfAbsent(handles[i], order[i]) == null ? 1 : 0),
+                new Scenario("rewardKey",
+                        i -> stringKeyed.getIfPresent(stringKey(attractionOf(attractions, order[i]), order[i])),
+                        i -> handleKeyed.getIfPresent(
+                                keyGenerator.generate(null, null, attractionOf(attractions, order[i]), order[i]))));
+
+        StringBuilder report = new StringBuilder(String.format("%d utilisateurs, meilleure de %d passes (ns/op)%n",
+                USERS, ROUNDS));
+        report.append(String.format("%-10s %12s %12s %8s%n", "scénario", "String/UUID", "handle", "gain"));
+        for (Scenario scenario : scenarios) {
+            long currentChecksum = checksum(scenario.current());
+            long handlesChecksum = checksum(scenario.handles());
+            assertEquals(currentChecksum, handlesChecksum, scenario.name());
+
+            double current = measure(scenario.current());
+            double withHandles = measure(scenario.handles());
+            report.append(String.format("%-10s %12.1f %12.1f %7.1fx%n",
+                    scenario.name(), current, withHandles, current / withHandles));
+        }
+
+        System.out.print(report);
+        Path out = Path.of("target", "benchmark");
+        Files.createDirectories(out);
+        try (PrintStream file = new PrintStream(Files.newOutputStream(out.resolve("user-handles.txt")))) {
+            file.print(report);
+        }
+    }
+
+    // Ancienne clé du cache: "#attraction.attractionId.toString() +'-'+#user.userId.toString()"
+    private static String stringKey(Attraction attraction, User user) {
+        return attraction.attractionId.toString() + "-" + user.getUserId().toString();
+    }
+
+    private static Attraction attractionOf(List<Attraction> attractions, User user) {
+        return attractions.get(user.getHandle() % ATTRACTIONS);
+    }
+
+    private static double measure(IntToLongFunction operation) {
+        long best = Long.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            sink += checksum(operation);
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        if (sink == 42) {
+            System.out.print(""); // empêche l'élimination du calcul
+        }
+        return (double) best / USERS;
+    }
+
+    private static long checksum(IntToLongFunction operation) {
+        long sum = 0;
+        for (int i = 0; i < USERS; i++) {
+            sum += operation.applyAsLong(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,174 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.geo.GeoGrid;
+import com.openclassrooms.tourguide.user.HandleTable;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserIndex;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+public class TestUserIndex {
+
+    private final UserIndex index = new UserIndex();
+
+    @Test
+    public void findsUsersByIdAndEmail() {
+        User jon = new User(UUID.randomUUID(), "jon", "000", "Jon@TourGuide.com");
+        User jon2 = new User(UUID.randomUUID(), "jon2", "000", "jon2@tourGuide.com");
+        assertTrue(index.add(jon));
+        assertTrue(index.add(jon2));
+        assertFalse(index.add(new User(UUID.randomUUID(), "jon", "000", "other@tourGuide.com")));
+
+        assertSame(jon, index.getByName("jon"));
+        assertSame(jon2, index.findById(jon2.getUserId()).orElseThrow());
+        assertSame(jon, index.findByEmail("jon@tourguide.com").orElseThrow());
+
+        index.changeEmail(jon, "jon.snow@tourGuide.com");
+        assertTrue(index.findByEmail("jon@tourGuide.com").isEmpty());
+        assertSame(jon, index.findByEmail("jon.snow@tourGuide.com").orElseThrow());
+
+        index.remove(jon);
+        assertTrue(index.findById(jon.getUserId()).isEmpty());
+        assertTrue(index.findByEmail("jon.snow@tourGuide.com").isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void usersViewIsLiveAndNotCopied() {
+        Collection<User> users = index.users();
+        assertTrue(users.isEmpty());
+        index.add(new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com"));
+        assertEquals(1, users.size());
+        assertSame(users, index.users());
+    }
+
+    @Test
+    public void regionQueryMatchesBruteForce() {
+        Random random = new Random(42);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            User user = new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com");
+            // Concentration autour de l'ouest des États-Unis pour peupler plusieurs cellules voisines
+            user.addToVisitedLocations(new VisitedLocation(user.getUserId(),
+                    new Location(30 + random.nextDouble() * 15, -125 + random.nextDouble() * 20), new Date()));
+            index.add(user);
+            users.add(user);
+        }
+        // Déplacements: la position indexée suit la dernière position connue
+        for (int i = 0; i < 500; i++) {
+            User user = users.get(i);
+            Location moved = new Location(30 + random.nextDouble() * 15, -125 + random.nextDouble() * 20);
+            user.addToVisitedLocations(new VisitedLocation(user.getUserId(), moved, new Date()));
+            index.updatePosition(user, moved);
+        }
+
+        Location center = new Location(37.5, -115);
+        for (double radius : new double[] {10, 150, 600, 20_000}) {
+            Set<User> expected = new HashSet<>();
+            for (User user : users) {
+                Location last = user.getLastVisitedLocation().location;
+                if (GeoGrid.distanceMiles(last.latitude, last.longitude, center.latitude, center.longitude) <= radius) {
+                    expected.add(user);
+                }
+            }
+            List<User> found = index.getUsersWithin(center, radius);
+            assertEquals(expected.size(), found.size(), "rayon " + radius);
+            assertEquals(expected, new HashSet<>(found), "rayon " + radius);
+        }
+    }
+
+    @Test
+    public void assignsStableDenseHandles() {
+        User jon = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        User jon2 = new User(UUID.randomUUID(), "jon2", "000", "jon2@tourGuide.com");
+        assertEquals(-1, jon.getHandle());
+        index.add(jon);
+        index.add(jon2);
+        assertTrue(jon.getHandle() >= 0 && jon2.getHandle() > jon.getHandle());
+        assertSame(jon2, index.getByHandle(jon2.getHandle()));
+
+        // Retiré puis réindexé: même handle; un homonyme en reçoit un nouveau
+        int handle = jon.getHandle();
+        index.remove(jon);
+        assertNull(index.getByHandle(handle));
+        User homonym = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        index.add(homonym);
+        index.remove(homonym);
+        index.add(jon);
+        assertEquals(handle, jon.getHandle());
+        assertSame(jon, index.getByHandle(handle));
+        assertNotEquals(handle, homonym.getHandle());
+        assertNull(index.getByHandle(homonym.getHandle()));
+    }
+
+    @Test
+    public void usersVisibleDuringConcurrentAddsAlreadyHaveTheirHandle() {
+        // Réconciliation du Tracker: chaque utilisateur parcouru est planifié par son handle
+        HandleTable<User> scheduled = new HandleTable<>();
+        AtomicBoolean adding = new AtomicBoolean(true);
+        CompletableFuture<Void> reconciliation = CompletableFuture.runAsync(() -> {
+            while (adding.get()) {
+                index.forEachUser(user -> {
+                    scheduled.putIfAbsent(user.getHandle(), user);
+                    assertSame(user, index.getByHandle(user.getHandle()));
+                });
+            }
+        });
+
+        List<CompletableFuture<Void>> adders = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            int first = thread * 5_000;
+            adders.add(CompletableFuture.runAsync(() -> {
+                for (int i = first; i < first + 5_000; i++) {
+                    index.add(new User(UUID.randomUUID(), "internalUser" + i, "000", "user" + i + "@tourGuide.com"));
+                }
+            }));
+        }
+        adders.forEach(CompletableFuture::join);
+        adding.set(false);
+        reconciliation.join();
+
+        index.forEachUser(user -> scheduled.putIfAbsent(user.getHandle(), user));
+        assertEquals(20_000, scheduled.size());
+    }
+
+    @Test
+    public void rejectedDuplicateLeavesNoSlotBehind() {
+        User jon = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        User homonym = new User(UUID.randomUUID(), "jon", "000", "other@tourGuide.com");
+        assertTrue(index.add(jon));
+        assertFalse(index.add(homonym));
+
+        assertNull(index.getByHandle(homonym.getHandle()));
+        assertFalse(index.add(jon));
+        assertSame(jon, index.getByHandle(jon.getHandle()));
+    }
+
+    @Test
+    public void ignoresPositionsOfUnindexedUsers() {
+        User stranger = new User(UUID.randomUUID(), "stranger", "000", "stranger@tourGuide.com");
+        index.updatePosition(stranger, new Location(37.5, -115));
+        assertTrue(index.getUsersWithin(new Location(37.5, -115), 10).isEmpty());
+    }
+}
@@ -0,0 +1,134 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.analytics.VisitAnalyticsStore;
+import com.openclassrooms.tourguide.analytics.VisitAnalyticsStore.Granularity;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.dto.AttractionVisitsDto;
+import com.openclassrooms.tourguide.dto.UserVisitDto;
+import com.openclassrooms.tourguide.dto.VisitCountDto;
+import com.openclassrooms.tourguide.service.GeofenceService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserIndex;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+public class TestVisitAnalyticsStore {
+
+    private final UserIndex userIndex = new UserIndex();
+    private final AttractionCatalog attractionCatalog = new AttractionCatalog(new GpsUtil(), null);
+    private final Attraction attraction = attractionCatalog.getAttractions().get(0);
+    private final VisitAnalyticsStore store = new VisitAnalyticsStore(new GeofenceService(attractionCatalog), true,
+            10, 5, Duration.ofHours(48), Duration.ofDays(365), Duration.ofMinutes(10));
+
+    // Deux heures pleines et récentes: [previousHour, currentHour[ et [currentHour, +1 h[
+    private final Instant currentHour = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(1, ChronoUnit.HOURS);
+    private final Instant previousHour = currentHour.minus(1, ChronoUnit.HOURS);
+
+    @Test
+    public void countsVisitsPerHourAttractionRegionAndUser() {
+        User visitor = user("visitor");
+        User traveller = user("traveller");
+        visit(visitor, attraction, previousHour.plusSeconds(600));
+        visit(visitor, attraction, currentHour.plusSeconds(600));
+        visit(visitor, attraction, currentHour.plusSeconds(1200));
+        visit(traveller, new Location(-45, 100), currentHour.plusSeconds(600));
+
+        Instant from = previousHour.minus(1, ChronoUnit.HOURS);
+        Instant to = currentHour.plus(2, ChronoUnit.HOURS);
+        assertEquals(List.of(new VisitCountDto(previousHour, 1), new VisitCountDto(currentHour, 2)),
+                store.getAttractionVisits(attraction.attractionName, from, to, Granularity.HOUR));
+        assertEquals(3, total(store.getAttractionVisits(attraction.attractionName, from, to, Granularity.DAY)));
+        assertEquals(3, total(store.getRegionVisits(attraction, from, to, Granularity.HOUR)));
+        assertEquals(1, total(store.getRegionVisits(new Location(-45, 100), from, to, Granularity.HOUR)));
+
+        List<AttractionVisitsDto> mostVisited = store.getMostVisitedAttractions(from, to, 5);
+        assertEquals(new AttractionVisitsDto(attraction.attractionName, 3), mostVisited.get(0));
+
+        // Une entrée par heure et par attraction
+        assertEquals(List.of(new UserVisitDto(attraction.attractionName, previousHour),
+                        new UserVisitDto(attraction.attractionName, currentHour)),
+                store.getUserVisits(visitor, from, to));
+        assertEquals(List.of(new UserVisitDto(attraction.attractionName, currentHour)),
+                store.getUserVisits(visitor, currentHour, to));
+        assertTrue(store.getUserVisits(traveller, from, to).isEmpty());
+    }
+
+    @Test
+    public void compactionRollsOldHoursIntoDaysThenDropsThem() {
+        User visitor = user("visitor");
+        visit(visitor, attraction, previousHour.plusSeconds(600));
+        visit(visitor, attraction, currentHour.plusSeconds(600));
+        Instant from = previousHour.minus(1, ChronoUnit.DAYS);
+        Instant to = currentHour.plus(2, ChronoUnit.DAYS);
+
+        store.compact(currentHour.plus(3, ChronoUnit.DAYS).toEpochMilli());
+
+        assertTrue(store.getAttractionVisits(attraction.attractionName, from, to, Granularity.HOUR).isEmpty());
+        assertEquals(2, total(store.getAttractionVisits(attraction.attractionName, from, to, Granularity.DAY)));
+        assertEquals(2, store.getUserVisits(visitor, from, to).size());
+
+        store.compact(currentHour.plus(400, ChronoUnit.DAYS).toEpochMilli());
+
+        assertTrue(store.getAttractionVisits(attraction.attractionName, from, to, Granularity.DAY).isEmpty());
+        assertTrue(store.getUserVisits(visitor, from, to).isEmpty());
+    }
+
+    @Test
+    public void dayQueriesDuringCompactionCountEachHourOnce() {
+        Instant from = currentHour.minus(3, ChronoUnit.DAYS);
+        Instant to = currentHour.plus(1, ChronoUnit.DAYS);
+        for (int round = 0; round < 20; round++) {
+            VisitAnalyticsStore compacted = new VisitAnalyticsStore(new GeofenceService(attractionCatalog), true,
+                    10, 5, Duration.ofHours(48), Duration.ofDays(365), Duration.ofMinutes(10));
+            User visitor = user("visitor" + round);
+            for (int hour = 0; hour < 40; hour++) {
+                compacted.recordVisit(visitor, new VisitedLocation(visitor.getUserId(),
+                        new Location(attraction.latitude, attraction.longitude),
+                        Date.from(currentHour.minus(hour, ChronoUnit.HOURS).plusSeconds(600))));
+            }
+
+            // Chaque heure est fusionnée dans son jour pendant que les requêtes journalières s'enchaînent
+            CompletableFuture<Void> compaction = CompletableFuture.runAsync(
+                    () -> compacted.compact(currentHour.plus(3, ChronoUnit.DAYS).toEpochMilli()));
+            do {
+                assertEquals(40, total(compacted.getAttractionVisits(attraction.attractionName, from, to,
+                        Granularity.DAY)));
+            } while (!compaction.isDone());
+            compaction.join();
+            assertEquals(40, total(compacted.getAttractionVisits(attraction.attractionName, from, to,
+                    Granularity.DAY)));
+        }
+    }
+
+    private void visit(User user, Location location, Instant time) {
+        store.recordVisit(user, new VisitedLocation(user.getUserId(),
+                new Location(location.latitude, location.longitude), Date.from(time)));
+    }
+
+    private static long total(List<VisitCountDto> series) {
+        return series.stream().mapToLong(VisitCountDto::visits).sum();
+    }
+
+    // Historique par utilisateur: réservé aux utilisateurs indexés
+    private User user(String userName) {
+        User user = new User(UUID.randomUUID(), userName, "000", userName + "@tourGuide.com");
+        userIndex.add(user);
+        return user;
+    }
+}
@@ -0,0 +1,163 @@
+package com.openclassrooms.tourguide.tracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.tourguide.diagnostics.TrackingDiagnostics;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.tracker.AdaptivePollingPolicy.Tier;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserIndex;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * File d'échéances du Tracker, sur une horloge simulée : la boucle de répartition est appelée à la main
+ * et chaque interrogation GPS est remplacée par l'enregistrement de l'utilisateur suivi.
+ */
+public class TestTracker {
+
+    @TempDir
+    Path directory;
+
+    private final UserIndex userIndex = new UserIndex();
+    private final TourGuideService tourGuideService = mock(TourGuideService.class);
+    private final AdaptivePollingPolicy pollingPolicy = mock(AdaptivePollingPolicy.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> polled = Collections.synchronizedList(new ArrayList<>());
+
+    private Tracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            userIndex.forEachUser(invocation.<Consumer<User>>getArgument(0));
+            return null;
+        }).when(tourGuideService).forEachUser(any());
+        when(tourGuideService.getUserCount()).thenAnswer(invocation -> userIndex.size());
+        when(tourGuideService.getUser(anyInt())).thenAnswer(invocation -> userIndex.getByHandle(invocation.getArgument(0)));
+        doAnswer(invocation -> {
+            polled.add(invocation.<User>getArgument(0).getUserName());
+            return null;
+        }).when(tourGuideService).trackUserLocation(any());
+
+        when(pollingPolicy.tierOf(any())).thenReturn(Tier.MOVING);
+        when(pollingPolicy.intervalOf(Tier.NEAR_ZONE)).thenReturn(Duration.ofMinutes(1));
+        when(pollingPolicy.intervalOf(Tier.MOVING)).thenReturn(Duration.ofMinutes(5));
+        when(pollingPolicy.intervalOf(Tier.STATIONARY)).thenReturn(Duration.ofMinutes(30));
+        when(pollingPolicy.movingInterval()).thenReturn(Duration.ofMinutes(5));
+
+        TrackingDiagnostics diagnostics = new TrackingDiagnostics(false, Duration.ZERO, 5, 2, false,
+                Duration.ofMinutes(1), directory.toString());
+        tracker = new Tracker(tourGuideService, pollingPolicy, meterRegistry, diagnostics, Duration.ZERO, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.stopTracking();
+    }
+
+    @Test
+    public void usersArePolledWhenDueAndRescheduledByTier() throws InterruptedException {
+        user("near", Tier.NEAR_ZONE);
+        user("moving", Tier.MOVING);
+        User stationary = user("stationary", Tier.STATIONARY);
+
+        // Premier passage: tous les utilisateurs sont échus
+        assertEquals(List.of("moving", "near", "stationary"), dispatchAt(Duration.ZERO, 3));
+
+        // Chacun revient après l'intervalle de son palier, jamais avant
+        assertEquals(List.of(), dispatchAt(Duration.ofSeconds(59), 0));
+        assertEquals(List.of("near"), dispatchAt(Duration.ofMinutes(1), 1));
+        assertEquals(List.of("moving", "near"), dispatchAt(Duration.ofMinutes(5), 2));
+        assertEquals(List.of("near"), dispatchAt(Duration.ofMinutes(6), 1));
+        assertEquals(List.of("moving", "near", "stationary"), dispatchAt(Duration.ofMinutes(30), 3));
+
+        // Palier recalculé à chaque suivi: l'utilisateur immobile qui approche d'une zone passe à la minute
+        when(pollingPolicy.tierOf(stationary)).thenReturn(Tier.NEAR_ZONE);
+        assertEquals(List.of("moving", "near", "stationary"), dispatchAt(Duration.ofMinutes(60), 3));
+        assertEquals(List.of("near", "stationary"), dispatchAt(Duration.ofMinutes(61), 2));
+    }
+
+    @Test
+    public void addedUsersArePickedUpAndRemovedUsersDropped() throws InterruptedException {
+        User first = user("first", Tier.MOVING);
+        assertEquals(List.of("first"), dispatchAt(Duration.ZERO, 1));
+
+        // Nouvel utilisateur: planifié dès le passage suivant, sans attendre la réconciliation périodique
+        user("second", Tier.MOVING);
+        assertEquals(List.of("second"), dispatchAt(Duration.ofSeconds(10), 1));
+        assertEquals(2.0, scheduledUsers());
+
+        // Utilisateur supprimé: retiré de la file à son échéance, sans interrogation GPS
+        userIndex.remove(first);
+        clock.set(Duration.ofMinutes(5).toNanos());
+        tracker.dispatchDueUsers();
+        await(() -> scheduledUsers() == 1.0);
+        assertEquals(List.of(), polled);
+
+        assertEquals(List.of("second"), dispatchAt(Duration.ofMinutes(5).plusSeconds(10), 1));
+        assertEquals(List.of(), dispatchAt(Duration.ofMinutes(10), 0));
+        assertEquals(1.0, scheduledUsers());
+    }
+
+    // Répartit les utilisateurs échus à l'instant donné et renvoie, triés, ceux qui ont été suivis
+    private List<String> dispatchAt(Duration time, int expectedPolls) throws InterruptedException {
+        double before = polls();
+        clock.set(time.toNanos());
+        tracker.dispatchDueUsers();
+        await(() -> polls() >= before + expectedPolls);
+        List<String> names;
+        synchronized (polled) {
+            names = new ArrayList<>(polled);
+            polled.clear();
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private User user(String userName, Tier tier) {
+        User user = new User(UUID.randomUUID(), userName, "000", userName + "@tourGuide.com");
+        userIndex.add(user);
+        when(pollingPolicy.tierOf(user)).thenReturn(tier);
+        return user;
+    }
+
+    private double polls() {
+        return meterRegistry.find("tourguide.tracker.gps.polls").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private double scheduledUsers() {
+        return meterRegistry.get("tourguide.tracker.scheduled.users").gauge().value();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}